@@ -0,0 +1,66 @@
+// k6 load test of the news and comment endpoints, run once per execution mode and compare the summaries:
+//   k6 run -e BASE_URL=http://localhost:8080 load-test/news-comments.js
+// Open-model arrival rate: requests keep arriving when the server slows down, like real clients do,
+// so thread-pool exhaustion shows up as growing latency and dropped iterations instead of a lower send rate.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '2000');
+const DURATION = __ENV.DURATION || '2m';
+const NEWS_COUNT = 50;
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+export const options = {
+    scenarios: {
+        reads_and_writes: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 500,
+            maxVUs: 5000,
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(99)<1000'],
+    },
+};
+
+export function setup() {
+    const newsIds = [];
+    for (let i = 0; i < NEWS_COUNT; i++) {
+        const news = http.post(`${BASE_URL}/news`, JSON.stringify({
+            date: new Date().toISOString().substring(0, 19),
+            title: `Load test news ${i}`,
+            text: 'Load test news text',
+        }), JSON_HEADERS);
+        newsIds.push(news.json('id'));
+    }
+    return { newsIds };
+}
+
+export default function (data) {
+    const newsId = data.newsIds[Math.floor(Math.random() * data.newsIds.length)];
+    const dice = Math.random();
+    let response;
+    if (dice < 0.2) {
+        response = http.post(`${BASE_URL}/news/${newsId}/comments`, JSON.stringify({
+            date: new Date().toISOString().substring(0, 19),
+            text: 'Load test comment',
+            userName: 'loadTest',
+        }), JSON_HEADERS);
+        check(response, { 'comment created': (r) => r.status === 201 });
+    } else if (dice < 0.6) {
+        response = http.get(`${BASE_URL}/news/${newsId}/comments?after=&size=20`);
+        check(response, { 'comments page': (r) => r.status === 200 });
+    } else {
+        response = http.get(`${BASE_URL}/news?after=&size=10&include=comments`);
+        check(response, { 'news page': (r) => r.status === 200 });
+    }
+}
+
+export function teardown(data) {
+    data.newsIds.forEach((newsId) => http.del(`${BASE_URL}/news/${newsId}`));
+}
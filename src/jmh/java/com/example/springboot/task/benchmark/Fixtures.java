@@ -0,0 +1,71 @@
+package com.example.springboot.task.benchmark;
+
+import com.example.springboot.task.SpringBootTaskApplication;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.entity.Comment;
+import com.example.springboot.task.entity.News;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic test data shared by the benchmarks
+ */
+final class Fixtures {
+
+    static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static News news(long id, int commentCount) {
+        News news = new News(id, START.plusMinutes(id), "News title " + id, text(id, 240));
+        List<Comment> comments = new ArrayList<>(commentCount);
+        for (int i = 0; i < commentCount; i++) {
+            Comment comment = new Comment((long) i, START.plusSeconds(i), text(i, 200), "benchmarkUser");
+            comment.setNews(news);
+            comments.add(comment);
+        }
+        news.setCommentList(comments);
+        return news;
+    }
+
+    /**
+     * The application without its web server on an in-memory H2 database with the schema generated from the entities
+     */
+    static ConfigurableApplicationContext startOnH2(String database) {
+        return new SpringApplicationBuilder(SpringBootTaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.request=OFF");
+    }
+
+    static NewsDto newsDto(long id) {
+        return new NewsDto(id, START.plusMinutes(id), "News title " + id, text(id, 240));
+    }
+
+    static CommentDto commentDto(long id) {
+        return new CommentDto(id, START.plusSeconds(id), text(id, 200), "benchmarkUser");
+    }
+
+    private static String text(long seed, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("lorem ipsum ").append(seed).append(' ');
+        }
+        return text.substring(0, length);
+    }
+}
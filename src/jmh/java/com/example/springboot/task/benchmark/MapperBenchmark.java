@@ -0,0 +1,81 @@
+package com.example.springboot.task.benchmark;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.entity.News;
+import com.example.springboot.task.mapper.CommentMapper;
+import com.example.springboot.task.mapper.CommentMapperImpl;
+import com.example.springboot.task.mapper.NewsMapper;
+import com.example.springboot.task.mapper.NewsMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * MapStruct conversion of news with large comment lists
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int commentCount;
+
+    private AnnotationConfigApplicationContext context;
+
+    private NewsMapper newsMapper;
+
+    private CommentMapper commentMapper;
+
+    private News news;
+
+    private NewsDto newsDto;
+
+    @Setup
+    public void setUp() {
+        // the generated NewsMapperImpl gets its CommentMapper autowired, so let Spring wire them
+        context = new AnnotationConfigApplicationContext(NewsMapperImpl.class, CommentMapperImpl.class);
+        newsMapper = context.getBean(NewsMapper.class);
+        commentMapper = context.getBean(CommentMapper.class);
+        news = Fixtures.news(1L, commentCount);
+        newsDto = newsMapper.entityToDto(news);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public NewsDto newsEntityToDto() {
+        return newsMapper.entityToDto(news);
+    }
+
+    @Benchmark
+    public NewsDto newsEntityToSummaryDto() {
+        return newsMapper.entityToSummaryDto(news);
+    }
+
+    @Benchmark
+    public List<CommentDto> commentEntitiesToDto() {
+        return news.getCommentList().stream().map(commentMapper::entityToDto).collect(toList());
+    }
+
+    @Benchmark
+    public News newsDtoToEntity() {
+        return newsMapper.dtoToEntity(newsDto);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.springboot.task.benchmark;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.entity.Comment;
+import com.example.springboot.task.entity.News;
+import com.example.springboot.task.mapper.CommentMapper;
+import com.example.springboot.task.mapper.NewsMapper;
+import com.example.springboot.task.repository.CommentRepository;
+import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.service.CommentService;
+import com.example.springboot.task.service.NewsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Pages of news and comments read as entities and mapped by MapStruct, as the services used to, against the constructor
+ * expressions of the repositories. Both run in a read-only transaction on in-memory H2, run with the GC profiler to compare
+ * the allocation per page: {@code ./gradlew jmh -PjmhIncludes=ReadPathBenchmark -PjmhProfilers=gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadPathBenchmark {
+
+    private static final int NEWS_COUNT = 500;
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private TransactionTemplate readOnly;
+
+    private EntityManager entityManager;
+
+    private NewsRepository newsRepository;
+
+    private CommentRepository commentRepository;
+
+    private NewsMapper newsMapper;
+
+    private CommentMapper commentMapper;
+
+    private Long newsId;
+
+    @Setup
+    public void setUp() {
+        context = Fixtures.startOnH2("read-path");
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        newsRepository = context.getBean(NewsRepository.class);
+        commentRepository = context.getBean(CommentRepository.class);
+        newsMapper = context.getBean(NewsMapper.class);
+        commentMapper = context.getBean(CommentMapper.class);
+        NewsService newsService = context.getBean(NewsService.class);
+        for (int i = 0; i < NEWS_COUNT; i++) {
+            newsId = newsService.create(Fixtures.newsDto(i)).getId();
+        }
+        List<CommentDto> comments = new ArrayList<>(NEWS_COUNT);
+        for (int i = 0; i < NEWS_COUNT; i++) {
+            comments.add(Fixtures.commentDto(i));
+        }
+        context.getBean(CommentService.class).createAll(newsId, comments);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<NewsDto> newsPageFromEntities() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("select n from News n order by n.date desc, n.id desc", News.class)
+                .setMaxResults(pageSize).getResultList()
+                .stream().map(newsMapper::entityToSummaryDto).collect(toList()));
+    }
+
+    @Benchmark
+    public List<NewsDto> newsPageProjected() {
+        return readOnly.execute(status -> newsRepository.findAllByOrderByDateDescIdDesc(PageRequest.of(0, pageSize)));
+    }
+
+    @Benchmark
+    public List<CommentDto> commentPageFromEntities() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("select c from Comment c where c.news.id = :newsId order by c.date desc, c.id desc", Comment.class)
+                .setParameter("newsId", newsId).setMaxResults(pageSize).getResultList()
+                .stream().map(commentMapper::entityToDto).collect(toList()));
+    }
+
+    @Benchmark
+    public List<CommentDto> commentPageProjected() {
+        return readOnly.execute(status -> commentRepository.findByNewsIdOrderByDateDescIdDesc(newsId, PageRequest.of(0, pageSize)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.springboot.task.benchmark;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the paged responses returned by the controllers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<CommentDto> commentPage;
+
+    private CursorPageDto<NewsDto> newsPage;
+
+    @Setup
+    public void setUp() {
+        // same defaults as the ObjectMapper auto-configured by Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        commentPage = new ArrayList<>(pageSize);
+        List<NewsDto> newsList = new ArrayList<>(pageSize);
+        for (long id = 0; id < pageSize; id++) {
+            commentPage.add(Fixtures.commentDto(id));
+            NewsDto newsDto = Fixtures.newsDto(id);
+            newsDto.setCommentList(Arrays.asList(Fixtures.commentDto(id), Fixtures.commentDto(id + 1)));
+            newsList.add(newsDto);
+        }
+        newsPage = new CursorPageDto<>(newsList, "MjAyMS0wMS0wMVQxMjowMHwx");
+    }
+
+    @Benchmark
+    public byte[] commentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(commentPage);
+    }
+
+    @Benchmark
+    public byte[] newsCursorPageWithComments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(newsPage);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springboot.task.benchmark;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.dto.NewsSort;
+import com.example.springboot.task.service.CommentService;
+import com.example.springboot.task.service.NewsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end calls of the news and comment services against an in-memory H2 database.
+ * The schema is generated from the entities because the Flyway scripts target PostgreSQL
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ServiceBenchmark {
+
+    private static final int NEWS_COUNT = 200;
+
+    private static final int COMMENTS_PER_NEWS = 50;
+
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+
+    private NewsService newsService;
+
+    private CommentService commentService;
+
+    private Long[] newsIds;
+
+    @Setup
+    public void setUp() {
+        context = Fixtures.startOnH2("benchmark");
+        newsService = context.getBean(NewsService.class);
+        commentService = context.getBean(CommentService.class);
+        newsIds = new Long[NEWS_COUNT];
+        for (int i = 0; i < NEWS_COUNT; i++) {
+            Long newsId = newsService.create(Fixtures.newsDto(i)).getId();
+            List<CommentDto> comments = new ArrayList<>(COMMENTS_PER_NEWS);
+            for (int j = 0; j < COMMENTS_PER_NEWS; j++) {
+                comments.add(Fixtures.commentDto(j));
+            }
+            commentService.createAll(newsId, comments);
+            newsIds[i] = newsId;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<NewsDto> newsOffsetPage() {
+        int page = ThreadLocalRandom.current().nextInt(NEWS_COUNT / PAGE_SIZE);
+        return newsService.findAll(PageRequest.of(page, PAGE_SIZE), NewsSort.DATE, false);
+    }
+
+    @Benchmark
+    public List<NewsDto> mostDiscussedNewsPage() {
+        int page = ThreadLocalRandom.current().nextInt(NEWS_COUNT / PAGE_SIZE);
+        return newsService.findAll(PageRequest.of(page, PAGE_SIZE), NewsSort.COMMENTS, false);
+    }
+
+    @Benchmark
+    public CursorPageDto<NewsDto> newsKeysetPageWithComments() {
+        return newsService.findAll(null, PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public CursorPageDto<CommentDto> commentKeysetPage() {
+        return commentService.findAll(randomNewsId(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Optional<NewsDto> newsByIdCached() {
+        return newsService.findById(randomNewsId());
+    }
+
+    private Long randomNewsId() {
+        return newsIds[ThreadLocalRandom.current().nextInt(NEWS_COUNT)];
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.springboot.task.benchmark;
+
+import com.example.springboot.task.converter.BinaryObjectMappers;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost and size of a page of comments in every wire format served by the controllers.
+ * The payload size of every format is logged once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    private static final TypeReference<CursorPageDto<CommentDto>> COMMENT_PAGE = new TypeReference<CursorPageDto<CommentDto>>() {
+    };
+
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    private String format;
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private boolean gzip;
+
+    private CursorPageDto<CommentDto> commentPage;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (format) {
+            case "cbor":
+                objectMapper = BinaryObjectMappers.cbor(jsonBuilder());
+                break;
+            case "smile":
+                objectMapper = BinaryObjectMappers.smile(jsonBuilder());
+                break;
+            default:
+                objectMapper = jsonBuilder().build();
+                gzip = format.endsWith("gzip");
+        }
+        List<CommentDto> comments = new ArrayList<>(pageSize);
+        for (long id = 0; id < pageSize; id++) {
+            CommentDto commentDto = Fixtures.commentDto(id);
+            commentDto.setVersion(0L);
+            comments.add(commentDto);
+        }
+        commentPage = new CursorPageDto<>(comments, "MjAyMS0wMS0wMVQxMjowMHwx");
+        payload = encode();
+        LOGGER.info("{}, {} comments: {} bytes", format, pageSize, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(commentPage);
+        if (!gzip) {
+            return bytes;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Benchmark
+    public CursorPageDto<CommentDto> decode() throws IOException {
+        try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(payload)) : new ByteArrayInputStream(payload)) {
+            return objectMapper.readValue(in, COMMENT_PAGE);
+        }
+    }
+
+    /**
+     * same defaults as the builder auto-configured by Spring Boot
+     */
+    private static Jackson2ObjectMapperBuilder jsonBuilder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
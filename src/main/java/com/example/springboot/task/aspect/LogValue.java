@@ -0,0 +1,114 @@
+package com.example.springboot.task.aspect;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Log argument which is rendered only when the logger formats the message, and then
+ * summarizes collections and cuts long values instead of printing them whole
+ */
+final class LogValue {
+
+    private final Object value;
+
+    private final int maxLength;
+
+    private LogValue(Object value, int maxLength) {
+        this.value = value;
+        this.maxLength = maxLength;
+    }
+
+    static LogValue of(Object value, int maxLength) {
+        return new LogValue(value, maxLength);
+    }
+
+    @Override
+    public String toString() {
+        BoundedBuilder builder = new BoundedBuilder(maxLength);
+        render(value, builder);
+        return builder.toString();
+    }
+
+    private void render(Object object, BoundedBuilder builder) {
+        if (builder.isFull()) {
+            return;
+        }
+        if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            builder.append('[');
+            for (int i = 0; i < array.length && !builder.isFull(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                render(array[i], builder);
+            }
+            builder.append(']');
+        } else if (object instanceof ResponseEntity) {
+            ResponseEntity<?> entity = (ResponseEntity<?>) object;
+            builder.append(String.valueOf(entity.getStatusCodeValue())).append(' ');
+            render(entity.getBody(), builder);
+        } else if (object instanceof Optional) {
+            render(((Optional<?>) object).orElse(null), builder);
+        } else if (object instanceof Collection) {
+            builder.append(object.getClass().getSimpleName()).append("(size=")
+                    .append(String.valueOf(((Collection<?>) object).size())).append(')');
+        } else if (object instanceof Map) {
+            builder.append(object.getClass().getSimpleName()).append("(size=")
+                    .append(String.valueOf(((Map<?, ?>) object).size())).append(')');
+        } else if (object instanceof CharSequence) {
+            builder.append((CharSequence) object);
+        } else {
+            builder.append(String.valueOf(object));
+        }
+    }
+
+    /**
+     * Keeps the first maxLength chars and drops the rest, so a long text is never copied whole and the elements after
+     * the limit are not rendered at all, other values still build their own toString
+     */
+    private static final class BoundedBuilder {
+
+        private final StringBuilder builder;
+
+        private final int maxLength;
+
+        private boolean full;
+
+        private BoundedBuilder(int maxLength) {
+            this.builder = new StringBuilder(Math.min(maxLength, 64));
+            this.maxLength = maxLength;
+        }
+
+        private BoundedBuilder append(CharSequence text) {
+            int room = maxLength - builder.length();
+            if (text.length() > room) {
+                builder.append(text, 0, Math.max(room, 0));
+                full = true;
+            } else {
+                builder.append(text);
+            }
+            return this;
+        }
+
+        private BoundedBuilder append(char c) {
+            if (builder.length() < maxLength) {
+                builder.append(c);
+            } else {
+                full = true;
+            }
+            return this;
+        }
+
+        private boolean isFull() {
+            return full;
+        }
+
+        @Override
+        public String toString() {
+            return full ? builder + "...(cut at " + maxLength + " chars)" : builder.toString();
+        }
+    }
+}
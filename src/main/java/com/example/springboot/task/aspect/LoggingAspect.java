@@ -1,36 +1,76 @@
 package com.example.springboot.task.aspect;
 
+import com.example.springboot.task.config.RequestLoggingProperties;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Aspect
+@EnableConfigurationProperties(RequestLoggingProperties.class)
 public class LoggingAspect {
 
-    Logger log = LoggerFactory.getLogger(LoggingAspect.class);
+    private static final String LOGGER_PREFIX = "request.";
+
+    private final RequestLoggingProperties properties;
+
+    private final ConcurrentMap<Method, Logger> loggers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LoggingAspect(RequestLoggingProperties properties) {
+        this.properties = properties;
+    }
 
     @Pointcut("execution(* com.example.springboot.task.controller.*.*(..))")
     public void myPointcut() {
 
     }
 
+    /**
+     * Log the call of an endpoint and its outcome. Messages are parameterized, so arguments are rendered
+     * only for calls which pass the level of the endpoint logger and the sampling; the appender is asynchronous
+     * (see logback-spring.xml) and drops messages instead of blocking when its queue is full.
+     */
     @Around("myPointcut()")
     public Object applicationLogger(ProceedingJoinPoint pjp) throws Throwable {
-        String methodName = pjp.getSignature().getName();
-        String className = pjp.getTarget().getClass().toString();
-        Object[] array = pjp.getArgs();
-        log.info("method invoke " + className + " : " + methodName + "() " + "arguments : " + Arrays.toString(array));
-        Object object = pjp.proceed();
-        log.info(className + " : " + methodName + "() " + "Response : " + object);
+        Logger log = loggers.computeIfAbsent(((MethodSignature) pjp.getSignature()).getMethod(), LoggingAspect::endpointLogger);
+        boolean sampled = log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        if (sampled) {
+            log.info("invoke arguments={}", LogValue.of(pjp.getArgs(), properties.getMaxValueLength()));
+        }
+        long start = System.nanoTime();
+        Object object;
+        try {
+            object = pjp.proceed();
+        } catch (Throwable e) {
+            log.warn("failed elapsedMs={} exception={} message={}", elapsedMillis(start), e.getClass().getSimpleName(),
+                    LogValue.of(e.getMessage(), properties.getMaxValueLength()));
+            throw e;
+        }
+        if (sampled) {
+            log.info("response elapsedMs={} value={}", elapsedMillis(start), LogValue.of(object, properties.getMaxValueLength()));
+        }
         return object;
+    }
 
+    private static Logger endpointLogger(Method method) {
+        return LoggerFactory.getLogger(LOGGER_PREFIX + method.getDeclaringClass().getSimpleName() + "." + method.getName());
+    }
 
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
     }
 }
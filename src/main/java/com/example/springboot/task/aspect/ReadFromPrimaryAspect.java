@@ -0,0 +1,28 @@
+package com.example.springboot.task.aspect;
+
+import com.example.springboot.task.datasource.ReadReplicaRoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes the statements of methods annotated with {@link com.example.springboot.task.datasource.ReadFromPrimary}
+ * to the primary. Connections are requested on the first statement, so the mark only has to be set around the method.
+ */
+@Component
+@Aspect
+public class ReadFromPrimaryAspect {
+
+    @Around("@annotation(com.example.springboot.task.datasource.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint pjp) throws Throwable {
+        boolean outermost = ReadReplicaRoutingDataSource.requirePrimary();
+        try {
+            return pjp.proceed();
+        } finally {
+            if (outermost) {
+                ReadReplicaRoutingDataSource.releasePrimary();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.springboot.task.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import static com.example.springboot.task.util.UtilConstants.SERVICE_METHOD_MDC_KEY;
+
+/**
+ * Times every service call as the service.calls timer tagged with class, method and exception,
+ * so latency percentiles and error counts per exception type are available for each method.
+ * The outermost service method of a call is put into the MDC, for logs such as the one of slow SQL statements.
+ */
+@Component
+@Aspect
+public class ServiceMetricsAspect {
+
+    private static final String METRIC_NAME = "service.calls";
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Pointcut("execution(* com.example.springboot.task.service.impl.*.*(..))")
+    public void servicePointcut() {
+
+    }
+
+    @Around("servicePointcut()")
+    public Object serviceTimer(ProceedingJoinPoint pjp) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NO_EXCEPTION;
+        boolean outermost = MDC.get(SERVICE_METHOD_MDC_KEY) == null;
+        if (outermost) {
+            MDC.put(SERVICE_METHOD_MDC_KEY, pjp.getSignature().getDeclaringType().getSimpleName() + "." + pjp.getSignature().getName());
+        }
+        try {
+            return pjp.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            if (outermost) {
+                MDC.remove(SERVICE_METHOD_MDC_KEY);
+            }
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Calls of service methods")
+                    .tag("class", pjp.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", pjp.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
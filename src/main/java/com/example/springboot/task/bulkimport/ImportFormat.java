@@ -0,0 +1,32 @@
+package com.example.springboot.task.bulkimport;
+
+import com.example.springboot.task.exception.InvalidImportException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_IMPORT_FORMAT;
+
+@Getter
+@AllArgsConstructor
+public enum ImportFormat {
+    NDJSON("ndjson"),
+    CSV("csv");
+
+    private final String extension;
+
+    /**
+     * Find format by the value of the "format" parameter
+     *
+     * @param name "ndjson" or "csv", case insensitive
+     * @return format of the imported file
+     * @throws InvalidImportException if the format is not supported
+     */
+    public static ImportFormat of(String name) {
+        for (ImportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new InvalidImportException(INVALID_IMPORT_FORMAT + name);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.springboot.task.bulkimport;
+
+import com.example.springboot.task.exception.InvalidImportException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_IMPORT_KIND;
+
+@Getter
+@AllArgsConstructor
+public enum ImportKind {
+    NEWS("news"),
+    COMMENTS("comments");
+
+    private final String value;
+
+    /**
+     * Find kind by the value of the "kind" parameter
+     *
+     * @param name "news" or "comments", case insensitive
+     * @return kind of the imported records
+     * @throws InvalidImportException if the kind is not supported
+     */
+    public static ImportKind of(String name) {
+        for (ImportKind kind : values()) {
+            if (kind.value.equalsIgnoreCase(name)) {
+                return kind;
+            }
+        }
+        throw new InvalidImportException(INVALID_IMPORT_KIND + name);
+    }
+}
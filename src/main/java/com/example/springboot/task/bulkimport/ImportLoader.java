@@ -0,0 +1,158 @@
+package com.example.springboot.task.bulkimport;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads a chunk of records with COPY into a staging table and merges it from there with a few set-based statements.
+ * Must be called inside a transaction, the staging rows of the chunk are deleted before it commits.
+ */
+public class ImportLoader {
+
+    private static final String COPY_NEWS = "copy import_news_staging (job_id, line, date, title, text) " +
+            "from stdin with (format csv)";
+
+    private static final String MERGE_NEWS = "insert into news (date, title, text, version, last_modified) " +
+            "select date, title, text, 0, timezone('utc', now()) from import_news_staging where job_id = ? order by line";
+
+    private static final String CLEAR_NEWS = "delete from import_news_staging where job_id = ?";
+
+    private static final String COPY_COMMENTS = "copy import_comments_staging (job_id, line, id, date, text, user_name, news_id) " +
+            "from stdin with (format csv)";
+
+    private static final String MERGE_COMMENTS = "insert into comments (id, date, text, user_name, news_id, version, last_modified) " +
+            "select s.id, s.date, s.text, s.user_name, s.news_id, 0, timezone('utc', now()) " +
+            "from import_comments_staging s join news n on n.id = s.news_id where s.job_id = ?";
+
+    /**
+     * same rule as NewsRepository.addComments, for every news of the chunk at once
+     */
+    private static final String ADD_COMMENTS = "update news n set comment_count = n.comment_count + a.count, " +
+            "last_comment_at = case when n.last_comment_at is null or n.last_comment_at < a.last_date " +
+            "then a.last_date else n.last_comment_at end " +
+            "from (select news_id, count(*) as count, max(date) as last_date from import_comments_staging " +
+            "where job_id = ? group by news_id) a where n.id = a.news_id returning n.id";
+
+    private static final String MISSING_NEWS = "select s.line from import_comments_staging s where s.job_id = ? " +
+            "and not exists (select 1 from news n where n.id = s.news_id) order by s.line";
+
+    private static final String CLEAR_COMMENTS = "delete from import_comments_staging where job_id = ?";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DataSource dataSource;
+
+    public ImportLoader(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @param jobId   import the records belong to
+     * @param records valid news
+     * @return number of news inserted
+     */
+    public int loadNews(long jobId, List<ImportRecord> records) {
+        copy(COPY_NEWS, writer -> {
+            for (ImportRecord record : records) {
+                writeRow(writer, jobId, record.getLine(), record.getNews().getDate(), record.getNews().getTitle(),
+                        record.getNews().getText());
+            }
+        });
+        int inserted = jdbcTemplate.update(MERGE_NEWS, jobId);
+        jdbcTemplate.update(CLEAR_NEWS, jobId);
+        return inserted;
+    }
+
+    /**
+     * Comments of news which do not exist are not inserted, their lines are returned instead
+     *
+     * @param jobId   import the records belong to
+     * @param records valid comments with their ids already assigned
+     * @return lines of the comments whose news does not exist and ids of the news which got comments
+     */
+    public CommentsLoaded loadComments(long jobId, List<ImportRecord> records) {
+        copy(COPY_COMMENTS, writer -> {
+            for (ImportRecord record : records) {
+                writeRow(writer, jobId, record.getLine(), record.getComment().getId(), record.getComment().getDate(),
+                        record.getComment().getText(), record.getComment().getUserName(), record.getNewsId());
+            }
+        });
+        int inserted = jdbcTemplate.update(MERGE_COMMENTS, jobId);
+        List<Long> newsIds = jdbcTemplate.queryForList(ADD_COMMENTS, Long.class, jobId);
+        List<Long> missingNewsLines = inserted == records.size() ? Collections.<Long>emptyList()
+                : jdbcTemplate.queryForList(MISSING_NEWS, Long.class, jobId);
+        jdbcTemplate.update(CLEAR_COMMENTS, jobId);
+        return new CommentsLoaded(inserted, newsIds, missingNewsLines);
+    }
+
+    private void copy(String sql, RowWriter rows) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, sql, COPY_BUFFER_SIZE), StandardCharsets.UTF_8), COPY_BUFFER_SIZE)) {
+                rows.write(writer);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY failed, bulk import requires PostgreSQL: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("COPY failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * One row in the CSV format of COPY: null is an empty unquoted value, everything else is quoted
+     */
+    static void writeRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] instanceof Number) {
+                writer.write(values[i].toString());
+            } else if (values[i] != null) {
+                writer.write('"');
+                writer.write(values[i].toString().replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Writer writer) throws IOException;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CommentsLoaded {
+
+        private final int inserted;
+
+        private final List<Long> newsIds;
+
+        private final List<Long> missingNewsLines;
+    }
+}
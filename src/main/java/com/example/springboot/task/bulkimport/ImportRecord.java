@@ -0,0 +1,33 @@
+package com.example.springboot.task.bulkimport;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A parsed record of an import file, a news or a comment with the id of its news
+ */
+@Data
+@AllArgsConstructor
+public class ImportRecord {
+
+    /**
+     * line of the file at which the record starts
+     */
+    private long line;
+
+    private NewsDto news;
+
+    private Long newsId;
+
+    private CommentDto comment;
+
+    public static ImportRecord news(long line, NewsDto news) {
+        return new ImportRecord(line, news, null, null);
+    }
+
+    public static ImportRecord comment(long line, Long newsId, CommentDto comment) {
+        return new ImportRecord(line, null, newsId, comment);
+    }
+}
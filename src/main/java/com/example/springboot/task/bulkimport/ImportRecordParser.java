@@ -0,0 +1,154 @@
+package com.example.springboot.task.bulkimport;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns records of an import file into news or comments. NDJSON records are the JSON of NewsDto, or of CommentDto
+ * with a "newsId" field. CSV files start with a header naming the columns, in any order: date, title and text
+ * for news, newsId, date, text and userName for comments; other columns such as id are ignored, so exported
+ * files can be imported. An empty unquoted CSV value is null.
+ */
+public class ImportRecordParser {
+
+    private static final String NEWS_ID = "newsId";
+    private static final String DATE = "date";
+    private static final String TITLE = "title";
+    private static final String TEXT = "text";
+    private static final String USER_NAME = "userName";
+
+    private static final char CSV_SEPARATOR = ',';
+    private static final char CSV_QUOTE = '"';
+
+    private final ImportKind kind;
+
+    private final ImportFormat format;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    /**
+     * @param csvHeader first record of a CSV file, ignored for NDJSON
+     * @throws IllegalArgumentException if the CSV header lacks a column of the kind
+     */
+    public ImportRecordParser(ImportKind kind, ImportFormat format, ObjectMapper objectMapper, String csvHeader) {
+        this.kind = kind;
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == ImportFormat.CSV) {
+            List<String> names = splitCsv(csvHeader == null ? "" : csvHeader);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i), i);
+            }
+            String[] required = kind == ImportKind.NEWS ? new String[]{DATE, TITLE, TEXT}
+                    : new String[]{NEWS_ID, DATE, TEXT, USER_NAME};
+            for (String column : required) {
+                if (!columns.containsKey(column)) {
+                    throw new IllegalArgumentException("CSV header has no column " + column + ": " + csvHeader);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param line   line at which the record starts
+     * @param record text of the record
+     * @return parsed news or comment, not yet validated
+     * @throws IllegalArgumentException if the record cannot be parsed
+     */
+    public ImportRecord parse(long line, String record) {
+        return format == ImportFormat.NDJSON ? parseJson(line, record) : parseCsv(line, record);
+    }
+
+    private ImportRecord parseJson(long line, String record) {
+        try {
+            if (kind == ImportKind.NEWS) {
+                return ImportRecord.news(line, objectMapper.readValue(record, NewsDto.class));
+            }
+            JsonNode node = objectMapper.readTree(record);
+            JsonNode newsId = node.path(NEWS_ID);
+            return ImportRecord.comment(line, newsId.canConvertToLong() ? newsId.longValue() : null,
+                    objectMapper.treeToValue(node, CommentDto.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ImportRecord parseCsv(long line, String record) {
+        List<String> values = splitCsv(record);
+        if (kind == ImportKind.NEWS) {
+            return ImportRecord.news(line, new NewsDto(null, date(value(values, DATE)), value(values, TITLE),
+                    value(values, TEXT)));
+        }
+        String newsId = value(values, NEWS_ID);
+        try {
+            return ImportRecord.comment(line, newsId == null ? null : Long.valueOf(newsId.trim()),
+                    new CommentDto(null, date(value(values, DATE)), value(values, TEXT), value(values, USER_NAME)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("newsId is not a number: " + newsId);
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        int index = columns.get(column);
+        return index < values.size() ? values.get(index) : null;
+    }
+
+    private static LocalDateTime date(String value) {
+        try {
+            return value == null ? null : LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date is not an ISO local date-time: " + value);
+        }
+    }
+
+    /**
+     * Split an RFC 4180 record into its values, a quoted empty value is "", an unquoted one null
+     */
+    static List<String> splitCsv(String record) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == CSV_QUOTE) {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == CSV_QUOTE) {
+                        value.append(CSV_QUOTE);
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(c);
+                }
+            } else if (c == CSV_QUOTE) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == CSV_SEPARATOR) {
+                values.add(value.length() == 0 && !wasQuoted ? null : value.toString());
+                value.setLength(0);
+                wasQuoted = false;
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("quote is not closed");
+        }
+        values.add(value.length() == 0 && !wasQuoted ? null : value.toString());
+        return values;
+    }
+}
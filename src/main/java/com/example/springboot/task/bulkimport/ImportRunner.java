@@ -0,0 +1,278 @@
+package com.example.springboot.task.bulkimport;
+
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.config.ImportProperties;
+import com.example.springboot.task.entity.ImportJob;
+import com.example.springboot.task.repository.ImportJobRepository;
+import com.example.springboot.task.trending.TrendingNews;
+import com.example.springboot.task.validator.CommentDtoValidator;
+import com.example.springboot.task.validator.NewsDtoValidator;
+import com.example.springboot.task.writebehind.CommentIdAllocator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Runs imports one after another on a single thread, so two imports never compete for the rows of the same news.
+ * A file is read from its checkpoint in chunks of chunk-size records; every chunk is parsed and validated,
+ * then copied, merged and checkpointed in one transaction. Imports left pending or running by a shutdown
+ * or a crash are resumed on start.
+ */
+public class ImportRunner implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportRunner.class);
+
+    private final ImportJobRepository repository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ImportLoader loader;
+
+    private final CommentIdAllocator idAllocator;
+
+    private final NewsDtoValidator newsValidator;
+
+    private final CommentDtoValidator commentValidator;
+
+    private final CacheInvalidator cacheInvalidator;
+
+    private final Optional<TrendingNews> trendingNews;
+
+    private final ObjectMapper objectMapper;
+
+    private final ImportProperties properties;
+
+    private final Counter importedRecords;
+
+    private final Counter rejectedRecords;
+
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    public ImportRunner(ImportJobRepository repository, TransactionTemplate transactionTemplate, ImportLoader loader,
+                        CommentIdAllocator idAllocator, NewsDtoValidator newsValidator,
+                        CommentDtoValidator commentValidator, CacheInvalidator cacheInvalidator,
+                        Optional<TrendingNews> trendingNews, ObjectMapper objectMapper, ImportProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.loader = loader;
+        this.idAllocator = idAllocator;
+        this.newsValidator = newsValidator;
+        this.commentValidator = commentValidator;
+        this.cacheInvalidator = cacheInvalidator;
+        this.trendingNews = trendingNews;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.importedRecords = meterRegistry.counter("imports.records", "outcome", "imported");
+        this.rejectedRecords = meterRegistry.counter("imports.records", "outcome", "rejected");
+    }
+
+    /**
+     * Queue the import behind the ones already submitted
+     *
+     * @param jobId import in status PENDING
+     */
+    public void submit(Long jobId) {
+        executor.execute(() -> run(jobId));
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "importer"));
+        running = true;
+        List<ImportJob> unfinished = repository.findByStatusInOrderById(Arrays.asList(ImportStatus.PENDING, ImportStatus.RUNNING));
+        if (!unfinished.isEmpty()) {
+            LOGGER.info("Resuming {} unfinished imports", unfinished.size());
+        }
+        unfinished.forEach(job -> submit(job.getId()));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Import still running after {}, it is resumed on the next start", properties.getShutdownTimeout());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run(Long jobId) {
+        ImportJob job = repository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == ImportStatus.COMPLETED || job.getStatus() == ImportStatus.FAILED) {
+            return;
+        }
+        job.setStatus(ImportStatus.RUNNING);
+        job = repository.save(job);
+        LOGGER.info("Importing {} from {} ({} bytes) at line {}", job.getKind(), job.getFilePath(), job.getFileSize(),
+                job.getCheckpointLine());
+        Path file = Paths.get(job.getFilePath());
+        try {
+            ImportRecordParser parser = new ImportRecordParser(job.getKind(), job.getFormat(), objectMapper, csvHeader(job, file));
+            boolean finished = false;
+            try (RecordReader reader = new RecordReader(file, job.getCheckpointOffset(), job.getCheckpointLine(),
+                    job.getFormat() == ImportFormat.CSV)) {
+                if (job.getFormat() == ImportFormat.CSV && job.getCheckpointOffset() == 0) {
+                    reader.next();
+                }
+                while (running && !finished) {
+                    finished = importChunk(job, reader, parser);
+                }
+            }
+            if (finished) {
+                complete(job, file);
+            }
+        } catch (RuntimeException | IOException e) {
+            LOGGER.error("Import {} failed at line {}", job.getId(), job.getCheckpointLine(), e);
+            job = repository.findById(jobId).orElse(job);
+            job.setStatus(ImportStatus.FAILED);
+            job.setError(e.getMessage());
+            repository.save(job);
+        }
+    }
+
+    /**
+     * Read, validate and import the next chunk of records
+     *
+     * @return true if the end of the file has been reached
+     */
+    private boolean importChunk(ImportJob job, RecordReader reader, ImportRecordParser parser) throws IOException {
+        List<ImportRecord> records = new ArrayList<>();
+        StringBuilder rejections = new StringBuilder(job.getRejections() == null ? "" : job.getRejections());
+        long[] rejected = {job.getRejected()};
+        String record;
+        boolean finished = false;
+        while (records.size() < properties.getChunkSize()) {
+            record = reader.next();
+            if (record == null) {
+                finished = true;
+                break;
+            }
+            if (record.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                ImportRecord parsed = parser.parse(reader.recordLine(), record);
+                List<String> errors = validate(parsed);
+                if (errors.isEmpty()) {
+                    records.add(parsed);
+                } else {
+                    reject(rejections, rejected, reader.recordLine(), String.join(", ", errors));
+                }
+            } catch (IllegalArgumentException e) {
+                reject(rejections, rejected, reader.recordLine(), e.getMessage());
+            }
+        }
+        if (job.getKind() == ImportKind.COMMENTS) {
+            records.forEach(parsed -> parsed.getComment().setId(idAllocator.nextId()));
+        }
+        long imported = transactionTemplate.execute(status -> {
+            long inserted;
+            if (job.getKind() == ImportKind.NEWS) {
+                inserted = records.isEmpty() ? 0 : loader.loadNews(job.getId(), records);
+            } else {
+                ImportLoader.CommentsLoaded loaded = records.isEmpty() ? null : loader.loadComments(job.getId(), records);
+                inserted = loaded == null ? 0 : loaded.getInserted();
+                if (loaded != null) {
+                    loaded.getMissingNewsLines().forEach(line -> reject(rejections, rejected, line, "news does not exist"));
+                    loaded.getNewsIds().forEach(newsId -> cacheInvalidator.commentChanged(newsId, null));
+                    trendingNews.ifPresent(trending -> countComments(trending, records, loaded.getMissingNewsLines()));
+                }
+            }
+            repository.advance(job.getId(), reader.offset(), reader.line(), inserted, rejected[0] - job.getRejected(),
+                    rejections.length() == 0 ? null : rejections.toString(), LocalDateTime.now(ZoneOffset.UTC));
+            return inserted;
+        });
+        importedRecords.increment(imported);
+        rejectedRecords.increment(rejected[0] - job.getRejected());
+        job.setCheckpointOffset(reader.offset());
+        job.setCheckpointLine(reader.line());
+        job.setImported(job.getImported() + imported);
+        job.setRejected(rejected[0]);
+        job.setRejections(rejections.length() == 0 ? null : rejections.toString());
+        LOGGER.debug("Import {}: {} of {} bytes, {} imported, {} rejected", job.getId(), job.getCheckpointOffset(),
+                job.getFileSize(), job.getImported(), job.getRejected());
+        return finished;
+    }
+
+    private static void countComments(TrendingNews trendingNews, List<ImportRecord> records, List<Long> missingNewsLines) {
+        Set<Long> missing = new HashSet<>(missingNewsLines);
+        records.stream()
+                .filter(record -> !missing.contains(record.getLine()))
+                .collect(groupingBy(ImportRecord::getNewsId, mapping(record -> record.getComment().getDate(), toList())))
+                .forEach(trendingNews::commentsAdded);
+    }
+
+    private List<String> validate(ImportRecord record) {
+        if (record.getNews() != null) {
+            return newsValidator.validate(record.getNews());
+        }
+        List<String> errors = commentValidator.validate(record.getComment());
+        if (record.getNewsId() == null) {
+            errors.add("newsId must not be null");
+        }
+        return errors;
+    }
+
+    private void reject(StringBuilder rejections, long[] rejected, long line, String reason) {
+        if (rejected[0] < properties.getMaxReportedRejections()) {
+            rejections.append("line ").append(line).append(": ").append(reason).append('\n');
+        }
+        rejected[0]++;
+    }
+
+    private void complete(ImportJob job, Path file) throws IOException {
+        ImportJob completed = repository.findById(job.getId()).orElse(job);
+        completed.setStatus(ImportStatus.COMPLETED);
+        completed.setFinishedAt(LocalDateTime.now(ZoneOffset.UTC));
+        repository.save(completed);
+        Files.deleteIfExists(file);
+        LOGGER.info("Import {} completed: {} imported, {} rejected", job.getId(), completed.getImported(), completed.getRejected());
+    }
+
+    /**
+     * The header of a CSV file, read again from the start when the import resumes past it
+     */
+    private static String csvHeader(ImportJob job, Path file) throws IOException {
+        if (job.getFormat() != ImportFormat.CSV) {
+            return null;
+        }
+        try (RecordReader reader = new RecordReader(file, 0, 0, true)) {
+            return reader.next();
+        }
+    }
+}
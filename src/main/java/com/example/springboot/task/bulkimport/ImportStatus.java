@@ -0,0 +1,14 @@
+package com.example.springboot.task.bulkimport;
+
+public enum ImportStatus {
+    /**
+     * uploaded, waiting for the import of an earlier file to finish
+     */
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    /**
+     * stopped by an error of the file or the database, can be resumed from its checkpoint
+     */
+    FAILED
+}
@@ -0,0 +1,134 @@
+package com.example.springboot.task.bulkimport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the records of an import file one by one through a fixed buffer, starting at any byte offset,
+ * and keeps the offset and the line right after the last record it returned, the checkpoint of the import.
+ * A record ends with a line break; with quoted line breaks (CSV) a line break inside double quotes does not end it.
+ */
+public class RecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * a longer record is taken for a broken file, e.g. a CSV quote which is never closed
+     */
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final boolean quotedLineBreaks;
+
+    private byte[] record = new byte[1024];
+
+    private int recordLength;
+
+    private long offset;
+
+    private long line;
+
+    private long recordLine;
+
+    /**
+     * @param file             file to read
+     * @param offset           byte offset of the first record to read
+     * @param line             lines before the offset
+     * @param quotedLineBreaks whether line breaks may be quoted inside a record
+     */
+    public RecordReader(Path file, long offset, long line, boolean quotedLineBreaks) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.offset = offset;
+        this.line = line;
+        this.quotedLineBreaks = quotedLineBreaks;
+        buffer.flip();
+    }
+
+    /**
+     * @return the next record without its line break, null at the end of the file
+     */
+    public String next() throws IOException {
+        recordLength = 0;
+        recordLine = line + 1;
+        boolean quoted = false;
+        long consumed = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    if (consumed == 0) {
+                        return null;
+                    }
+                    return endRecord(consumed);
+                }
+            }
+            byte b = buffer.get();
+            consumed++;
+            if (b == '\n') {
+                if (!quoted) {
+                    return endRecord(consumed);
+                }
+                line++;
+            } else if (b == '"' && quotedLineBreaks) {
+                quoted = !quoted;
+            }
+            append(b);
+        }
+    }
+
+    /**
+     * @return byte offset right after the last record
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * @return lines up to the end of the last record
+     */
+    public long line() {
+        return line;
+    }
+
+    /**
+     * @return line at which the last record starts, 1-based
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String endRecord(long consumed) {
+        offset += consumed;
+        line++;
+        int length = recordLength > 0 && record[recordLength - 1] == '\r' ? recordLength - 1 : recordLength;
+        return new String(record, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void append(byte b) throws IOException {
+        if (recordLength == record.length) {
+            if (recordLength >= MAX_RECORD_BYTES) {
+                throw new IOException("Record at line " + recordLine + " is longer than " + MAX_RECORD_BYTES
+                        + " bytes, is a quote left open?");
+            }
+            record = Arrays.copyOf(record, Math.min(record.length * 2, MAX_RECORD_BYTES));
+        }
+        record[recordLength++] = b;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.springboot.task.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static com.example.springboot.task.util.CacheNames.COMMENTS;
+import static com.example.springboot.task.util.CacheNames.COMMENT_PAGES;
+import static com.example.springboot.task.util.CacheNames.COMMENT_VERSIONS;
+import static com.example.springboot.task.util.CacheNames.NEWS;
+import static com.example.springboot.task.util.CacheNames.NEWS_VERSIONS;
+
+/**
+ * Evicts exactly the entries affected by a write. Keys of the comment regions start with "newsId:",
+ * see the @Cacheable keys of CommentServiceImpl.
+ * The versions behind ETag and Last-Modified are cached next to the resources and evicted together with them.
+ * Entries are evicted right away and once more after commit, so that a read which
+ * loaded the old row while the transaction was running does not stay in the cache.
+ */
+@Component
+public class CacheInvalidator {
+
+    private static final String KEY_SEPARATOR = ":";
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * News itself was updated, its comments stay valid
+     *
+     * @param newsId id of the news
+     */
+    public void newsChanged(Long newsId) {
+        evictNowAndAfterCommit(() -> {
+            evict(NEWS, newsId);
+            evict(NEWS_VERSIONS, newsId);
+        });
+    }
+
+    /**
+     * News was deleted together with all of its comments
+     *
+     * @param newsId id of the news
+     */
+    public void newsDeleted(Long newsId) {
+        evictNowAndAfterCommit(() -> {
+            evict(NEWS, newsId);
+            evict(NEWS_VERSIONS, newsId);
+            evictByNewsId(COMMENTS, newsId);
+            evictByNewsId(COMMENT_PAGES, newsId);
+            evictByNewsId(COMMENT_VERSIONS, newsId);
+        });
+    }
+
+    /**
+     * Comment was created, updated or deleted, the news embeds its comments so it is evicted as well.
+     * Any change of a comment changes the version of the comment list, all comment versions of the news are evicted.
+     *
+     * @param newsId    id of the news
+     * @param commentId id of the comment, null for new comments
+     */
+    public void commentChanged(Long newsId, Long commentId) {
+        evictNowAndAfterCommit(() -> {
+            evict(NEWS, newsId);
+            evict(NEWS_VERSIONS, newsId);
+            if (commentId != null) {
+                evict(COMMENTS, newsId + KEY_SEPARATOR + commentId);
+            }
+            evictByNewsId(COMMENT_PAGES, newsId);
+            evictByNewsId(COMMENT_VERSIONS, newsId);
+        });
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictByNewsId(String cacheName, Long newsId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache) {
+            String prefix = newsId + KEY_SEPARATOR;
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap().keySet()
+                    .removeIf(key -> key.toString().startsWith(prefix));
+        } else {
+            cache.clear();
+        }
+    }
+
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
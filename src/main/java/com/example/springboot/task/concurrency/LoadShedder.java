@@ -0,0 +1,89 @@
+package com.example.springboot.task.concurrency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Measures the load of the server as the moving average of request latency and the number of threads waiting
+ * for a database connection. Above either threshold a growing share of writes is shed, all but a few of them
+ * at twice the threshold; reads are never shed, they keep the latency average current while writes are rejected.
+ */
+public class LoadShedder implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = LoadShedder.class.getName() + ".start";
+
+    /**
+     * weight of the latest request in the moving average
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * some writes always get through, so the average keeps following the load when there are no reads
+     */
+    private static final double MAX_SHED_PROBABILITY = 0.95;
+
+    private final long latencyThresholdNanos;
+
+    private final int pendingConnectionsThreshold;
+
+    private final IntSupplier pendingConnections;
+
+    private final AtomicLong latencyAverage = new AtomicLong(Double.doubleToLongBits(0));
+
+    public LoadShedder(Duration latencyThreshold, int pendingConnectionsThreshold, IntSupplier pendingConnections) {
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.pendingConnectionsThreshold = pendingConnectionsThreshold;
+        this.pendingConnections = pendingConnections;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    /**
+     * Rejected requests are not counted, they would pull the average down while the server is overloaded
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        int status = response.getStatus();
+        if (start != null && status != HttpStatus.TOO_MANY_REQUESTS.value() && status != HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            record(System.nanoTime() - (Long) start);
+        }
+    }
+
+    void record(long latencyNanos) {
+        latencyAverage.getAndUpdate(bits ->
+                Double.doubleToLongBits(Double.longBitsToDouble(bits) * (1 - SMOOTHING) + latencyNanos * SMOOTHING));
+    }
+
+    /**
+     * @return load relative to the thresholds, above 1 the server is overloaded
+     */
+    public double pressure() {
+        double latency = Double.longBitsToDouble(latencyAverage.get()) / latencyThresholdNanos;
+        double pending = (double) pendingConnections.getAsInt() / pendingConnectionsThreshold;
+        return Math.max(latency, pending);
+    }
+
+    /**
+     * @return true if the current write should be rejected
+     */
+    public boolean shouldShed() {
+        double pressure = pressure();
+        return pressure > 1 && ThreadLocalRandom.current().nextDouble() < Math.min(MAX_SHED_PROBABILITY, pressure - 1);
+    }
+
+    public double latencyAverageMillis() {
+        return Double.longBitsToDouble(latencyAverage.get()) / 1_000_000;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.springboot.task.concurrency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets by key, filled at a fixed rate up to burst tokens. Every bucket is a single AtomicLong holding
+ * the time its next token is due (the generic cell rate algorithm), so acquiring is one compare-and-set without
+ * locks. A bucket untouched for longer than it takes to fill up is evicted, it would be full anyway.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+
+    private final long toleranceNanos;
+
+    private final Cache<Object, AtomicLong> buckets;
+
+    /**
+     * @param permitsPerSecond rate at which a bucket is refilled
+     * @param burst            tokens of a full bucket
+     * @param maxKeys          buckets kept at most, the least recently used ones are dropped first
+     */
+    public RateLimiter(double permitsPerSecond, int burst, long maxKeys) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and burst, got "
+                    + permitsPerSecond + "/s and " + burst);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.toleranceNanos = intervalNanos * burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos))
+                .build();
+    }
+
+    /**
+     * Take a token from the bucket of the key
+     *
+     * @param key client, user or anything else the rate applies to
+     * @return 0 if a token was taken, otherwise nanoseconds until the next one is due
+     */
+    public long tryAcquire(Object key) {
+        long now = System.nanoTime();
+        AtomicLong nextDue = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long due = nextDue.get();
+            long next = Math.max(due, now) + intervalNanos;
+            long wait = next - toleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (nextDue.compareAndSet(due, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by {@link #tryAcquire(Object)} for a request which was rejected by another limit
+     *
+     * @param key client, user or anything else the rate applies to
+     */
+    public void release(Object key) {
+        AtomicLong nextDue = buckets.getIfPresent(key);
+        if (nextDue != null) {
+            nextDue.addAndGet(-intervalNanos);
+        }
+    }
+}
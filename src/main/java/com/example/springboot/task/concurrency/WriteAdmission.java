@@ -0,0 +1,127 @@
+package com.example.springboot.task.concurrency;
+
+import com.example.springboot.task.exception.RateLimitExceededException;
+import com.example.springboot.task.exception.ServerOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.springboot.task.exception.ExceptionMessage.RATE_LIMIT_EXCEEDED;
+import static com.example.springboot.task.exception.ExceptionMessage.SERVER_OVERLOADED;
+
+/**
+ * Admission of writes: first load shedding, then the rate limits of the client address, the user, the news
+ * and of the whole server, the most specific first, so a client over its limit does not use up the global one.
+ * The tokens taken before a limit rejects the write are given back, a rejected write costs no other limit a token.
+ * <p>
+ * The client is the remote address of the request. Behind a reverse proxy that address is the proxy's unless
+ * server.forward-headers-strategy is set: with "native" (the default of application.yml) Tomcat takes the client
+ * from X-Forwarded-For when the request comes from one of server.tomcat.remoteip.internal-proxies, with "framework"
+ * ForwardedHeaderFilter takes it from Forwarded or X-Forwarded-For of any request, which only suits a server
+ * reachable through the proxy alone.
+ */
+public class WriteAdmission {
+
+    private static final String GLOBAL_KEY = "global";
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    private final RateLimiter clientLimiter;
+
+    private final RateLimiter userLimiter;
+
+    private final RateLimiter newsLimiter;
+
+    private final RateLimiter globalLimiter;
+
+    private final LoadShedder loadShedder;
+
+    private final Counter rateLimited;
+
+    private final Counter shed;
+
+    public WriteAdmission(RateLimiter clientLimiter, RateLimiter userLimiter, RateLimiter newsLimiter,
+                          RateLimiter globalLimiter, LoadShedder loadShedder, MeterRegistry meterRegistry) {
+        this.clientLimiter = clientLimiter;
+        this.userLimiter = userLimiter;
+        this.newsLimiter = newsLimiter;
+        this.globalLimiter = globalLimiter;
+        this.loadShedder = loadShedder;
+        this.rateLimited = meterRegistry.counter("http.server.requests.rejected", "reason", "rate-limit");
+        this.shed = meterRegistry.counter("http.server.requests.rejected", "reason", "load-shedding");
+    }
+
+    /**
+     * @throws ServerOverloadedException  if the server is overloaded
+     * @throws RateLimitExceededException if the client or the server creates news too fast
+     */
+    public void admitNews() {
+        shedIfOverloaded();
+        List<Runnable> refunds = new ArrayList<>(2);
+        try {
+            acquire(clientLimiter, clientAddress(), "client", refunds);
+            acquire(globalLimiter, GLOBAL_KEY, "global", refunds);
+        } catch (RateLimitExceededException e) {
+            refunds.forEach(Runnable::run);
+            throw e;
+        }
+    }
+
+    /**
+     * @param newsId   news to be commented
+     * @param userName author of the comment
+     * @throws ServerOverloadedException  if the server is overloaded
+     * @throws RateLimitExceededException if the client, the user, the news or the server gets comments too fast
+     */
+    public void admitComment(Long newsId, String userName) {
+        shedIfOverloaded();
+        List<Runnable> refunds = new ArrayList<>(4);
+        try {
+            acquire(clientLimiter, clientAddress(), "client", refunds);
+            if (userName != null) {
+                acquire(userLimiter, userName, "user", refunds);
+            }
+            acquire(newsLimiter, newsId, "news", refunds);
+            acquire(globalLimiter, GLOBAL_KEY, "global", refunds);
+        } catch (RateLimitExceededException e) {
+            refunds.forEach(Runnable::run);
+            throw e;
+        }
+    }
+
+    private void shedIfOverloaded() {
+        if (loadShedder.shouldShed()) {
+            shed.increment();
+            throw new ServerOverloadedException(SERVER_OVERLOADED);
+        }
+    }
+
+    /**
+     * @param refunds gives back the tokens taken so far, the one taken here is added to it
+     */
+    private void acquire(RateLimiter limiter, Object key, String limit, List<Runnable> refunds) {
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            throw new RateLimitExceededException(RATE_LIMIT_EXCEEDED + limit,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+        refunds.add(() -> limiter.release(key));
+    }
+
+    /**
+     * @return address of the client, already taken from the forwarded headers by Tomcat or ForwardedHeaderFilter
+     */
+    private static String clientAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr();
+        }
+        return UNKNOWN_CLIENT;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.util.CacheNames;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+import static java.util.stream.Collectors.toList;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * One bounded caffeine cache per region, statistics are recorded so that
+     * actuator publishes hits, misses and evictions as cache.* metrics
+     *
+     * @param properties size and ttl of the regions
+     * @return cache manager with the regions of {@link CacheNames}
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(Arrays.stream(CacheNames.ALL)
+                .map(name -> {
+                    CacheProperties.Region region = properties.getRegions().getOrDefault(name, new CacheProperties.Region());
+                    return new CaffeineCache(name, Caffeine.newBuilder()
+                            .maximumSize(region.getMaximumSize())
+                            .expireAfterWrite(region.getTtl())
+                            .recordStats()
+                            .build(), false);
+                })
+                .collect(toList()));
+        return cacheManager;
+    }
+}
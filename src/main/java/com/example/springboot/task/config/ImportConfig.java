@@ -0,0 +1,49 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.bulkimport.ImportLoader;
+import com.example.springboot.task.bulkimport.ImportRunner;
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.repository.ImportJobRepository;
+import com.example.springboot.task.trending.TrendingNews;
+import com.example.springboot.task.validator.CommentDtoValidator;
+import com.example.springboot.task.validator.NewsDtoValidator;
+import com.example.springboot.task.writebehind.CommentIdAllocator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.Optional;
+
+import static com.example.springboot.task.util.UtilConstants.COMMENTS_ID_SEQUENCE;
+
+/**
+ * Bulk import of news and comments through PostgreSQL COPY, see ImportRunner
+ */
+@Configuration
+@EnableConfigurationProperties(ImportProperties.class)
+public class ImportConfig {
+
+    /**
+     * Comment ids come from comments_id_seq in blocks like those of Hibernate, by an allocator of the importer's own
+     */
+    @Bean
+    public ImportRunner importRunner(ImportJobRepository repository, PlatformTransactionManager transactionManager,
+                                     JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                     EntityManagerFactory entityManagerFactory, NewsDtoValidator newsValidator,
+                                     CommentDtoValidator commentValidator, CacheInvalidator cacheInvalidator,
+                                     Optional<TrendingNews> trendingNews, ObjectMapper objectMapper, ImportProperties properties, MeterRegistry meterRegistry) {
+        String nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceNextValString(COMMENTS_ID_SEQUENCE);
+        return new ImportRunner(repository, new TransactionTemplate(transactionManager),
+                new ImportLoader(jdbcTemplate, dataSource), new CommentIdAllocator(jdbcTemplate, nextValueSql),
+                newsValidator, commentValidator, cacheInvalidator, trendingNews, objectMapper, properties, meterRegistry);
+    }
+}
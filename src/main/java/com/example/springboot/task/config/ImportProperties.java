@@ -0,0 +1,44 @@
+package com.example.springboot.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Settings of bulk imports, see ImportConfig
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+    /**
+     * uploaded files are kept here until their import completes
+     */
+    private Path directory = Paths.get("data", "imports");
+
+    /**
+     * larger uploads are rejected with 413 and their partial file is removed
+     */
+    private DataSize maxUploadSize = DataSize.ofGigabytes(1);
+
+    /**
+     * records imported in one transaction, each chunk moves the checkpoint
+     */
+    private int chunkSize = 5000;
+
+    /**
+     * rejected records reported with line and reason, the others are only counted
+     */
+    private int maxReportedRejections = 100;
+
+    /**
+     * how long a shutdown waits for the running chunk, the import resumes from its checkpoint on the next start
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
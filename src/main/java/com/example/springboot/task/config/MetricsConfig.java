@@ -0,0 +1,56 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.metrics.StatementCounter;
+import com.example.springboot.task.metrics.SlowQueryLogPostProcessor;
+import com.example.springboot.task.metrics.StatementMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    private final int statementWarnThreshold;
+
+    @Autowired
+    public MetricsConfig(MeterRegistry meterRegistry,
+                         @Value("${app.metrics.statements.warn-threshold:20}") int statementWarnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.statementWarnThreshold = statementWarnThreshold;
+    }
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    /**
+     * Static, as a post processor is created before the other beans of the configuration
+     */
+    @Bean
+    public static SlowQueryLogPostProcessor slowQueryLogPostProcessor(
+            @Value("${app.metrics.slow-query-threshold:0ms}") Duration threshold, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SlowQueryLogPostProcessor(threshold, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StatementMetricsInterceptor(statementCounter(), meterRegistry, statementWarnThreshold));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.partitioning.CommentPartitionMigration;
+import com.example.springboot.task.partitioning.CommentPartitions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Monthly range partitions of comments (app.partitioning.enabled, on by default), see V1_11__comments_partitioned.sql
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.partitioning", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(PartitioningProperties.class)
+public class PartitioningConfig {
+
+    @Bean
+    public CommentPartitions commentPartitions(JdbcTemplate jdbcTemplate, PartitioningProperties properties) {
+        return new CommentPartitions(jdbcTemplate, properties.getMonthsAhead(), properties.getCheckInterval());
+    }
+
+    /**
+     * Online copy of a large existing table, only when asked for with app.partitioning.migrate-existing=true
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.partitioning", name = "migrate-existing", havingValue = "true")
+    public CommentPartitionMigration commentPartitionMigration(JdbcTemplate jdbcTemplate,
+                                                               PlatformTransactionManager transactionManager,
+                                                               PartitioningProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getBatchSize() < 1) {
+            throw new IllegalStateException("app.partitioning.batch-size must be greater than 0");
+        }
+        return new CommentPartitionMigration(jdbcTemplate, new TransactionTemplate(transactionManager),
+                properties.getBatchSize(), properties.getBatchPause(), properties.getLockTimeout(), meterRegistry);
+    }
+}
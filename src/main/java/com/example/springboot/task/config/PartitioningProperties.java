@@ -0,0 +1,52 @@
+package com.example.springboot.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the monthly partitions of comments, see PartitioningConfig
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.partitioning")
+public class PartitioningProperties {
+
+    /**
+     * create the partitions of the coming months ahead of time, PostgreSQL only
+     */
+    private boolean enabled = true;
+
+    /**
+     * partitions kept ready after the current month
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * how often the partitions of the coming months are checked
+     */
+    private Duration checkInterval = Duration.ofHours(6);
+
+    /**
+     * copy the comments of a table too large to be partitioned by its migration in batches,
+     * then replace the table with the partitioned one
+     */
+    private boolean migrateExisting = false;
+
+    /**
+     * comments copied in one transaction
+     */
+    private int batchSize = 5000;
+
+    /**
+     * pause between two batches, so the copy does not compete with the application for the database
+     */
+    private Duration batchPause = Duration.ofMillis(100);
+
+    /**
+     * how long the switch to the partitioned table waits for the lock of comments before it is tried again
+     */
+    private Duration lockTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,82 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.datasource.ReadReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in mode (app.read-replicas.enabled=true) in which @Transactional(readOnly = true) methods read
+ * from the replicas, see ReadReplicaRoutingDataSource. Writes, Flyway and reads outside of read-only
+ * transactions use the primary pool configured by spring.datasource.*.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.read-replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                          DataSourceProperties dataSourceProperties,
+                                                          ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        List<ReadReplicaProperties.Instance> instances = properties.getInstances();
+        if (instances.isEmpty()) {
+            throw new IllegalStateException("app.read-replicas.enabled requires at least one of app.read-replicas.instances");
+        }
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < instances.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.put(name, replicaDataSource(name, instances.get(i), dataSourceProperties, properties, meterRegistry));
+        }
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicas, properties.getMaxLag(),
+                properties.getHealthCheckInterval(), properties.getLagQuery(), meterRegistry);
+    }
+
+    /**
+     * Connections are requested on the first statement, when the transaction is already known to be read-only
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * A replica which is down at startup does not fail the application, it stays unavailable until it is reachable
+     */
+    private static HikariDataSource replicaDataSource(String name, ReadReplicaProperties.Instance instance,
+                                                      DataSourceProperties dataSourceProperties,
+                                                      ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        dataSource.setJdbcUrl(instance.getUrl());
+        dataSource.setUsername(instance.getUsername());
+        dataSource.setPassword(instance.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
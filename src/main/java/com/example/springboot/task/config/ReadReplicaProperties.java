@@ -0,0 +1,65 @@
+package com.example.springboot.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the read replicas serving read-only transactions, see ReadReplicaConfig
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.read-replicas")
+public class ReadReplicaProperties {
+
+    /**
+     * send read-only transactions to the replicas, everything else keeps using spring.datasource
+     */
+    private boolean enabled = false;
+
+    /**
+     * replicas taking turns in serving read-only transactions; the driver is the one of spring.datasource
+     */
+    private List<Instance> instances = new ArrayList<>();
+
+    /**
+     * connections of every replica pool
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * how long a read-only transaction waits for a connection of a replica
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    /**
+     * a replica lagging further behind the primary is skipped until it catches up
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * how often the lag of every replica is measured
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * query returning the replication lag of a replica in seconds; 0 while everything received has been replayed
+     */
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    @Getter
+    @Setter
+    public static class Instance {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
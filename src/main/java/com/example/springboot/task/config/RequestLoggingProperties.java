@@ -0,0 +1,26 @@
+package com.example.springboot.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the controller call log written by LoggingAspect.
+ * Levels are set per endpoint through the logger "request.[Controller].[method]",
+ * e.g. logging.level.request.NewsController.findAllNews=WARN
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.logging.requests")
+public class RequestLoggingProperties {
+
+    /**
+     * share of successful calls which are logged, from 0.0 to 1.0; failed calls are always logged
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * rendered arguments and responses are cut to this number of characters
+     */
+    private int maxValueLength = 256;
+}
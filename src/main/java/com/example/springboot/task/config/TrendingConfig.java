@@ -0,0 +1,32 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.trending.TrendingNews;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+
+/**
+ * News with the most comments of the last 5 minutes, hour and day, counted in memory
+ * (app.trending.enabled, on by default), see TrendingNews
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.trending", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(TrendingProperties.class)
+public class TrendingConfig {
+
+    @Bean
+    public TrendingNews trendingNews(JdbcTemplate jdbcTemplate, TrendingProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getTopSize() < 1) {
+            throw new IllegalStateException("app.trending.top-size must be greater than 0");
+        }
+        TrendingNews trendingNews = new TrendingNews(jdbcTemplate, properties.getTopSize(), Clock.systemUTC());
+        Gauge.builder("trending.news.tracked", trendingNews, TrendingNews::trackedNews).register(meterRegistry);
+        return trendingNews;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springboot.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the trending news, see TrendingConfig
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.trending")
+public class TrendingProperties {
+
+    /**
+     * count comments in memory and serve GET /news/trending
+     */
+    private boolean enabled = true;
+
+    /**
+     * news kept in order for every window, the most GET /news/trending returns
+     */
+    private int topSize = 100;
+}
@@ -0,0 +1,106 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.concurrency.ConcurrencyLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in mode (app.virtual-threads.enabled=true) serving every request, and the bodies of streamed exports,
+ * on virtual threads. A thread blocked on JDBC no longer holds one of the 200 Tomcat workers, so the number
+ * of requests in flight is bound by the database instead of the thread pool; ConcurrencyLimitFilter keeps
+ * that number at the size of the connection pool.
+ * <p>
+ * Virtual threads exist since Java 21; the application fails at startup when the mode is enabled on an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.virtual-threads", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+public class VirtualThreadConfig {
+
+    private static final String THREAD_NAME_PREFIX = "vt-";
+
+    /**
+     * size Hikari applies when the pool starts with maximum-pool-size left unset
+     */
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Equivalent of Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vt-", 0).factory()),
+     * called reflectively because the code is still compiled for older Java versions
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new IllegalStateException("app.virtual-threads.enabled requires Java 21 or later, running on "
+                    + System.getProperty("java.version"), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual thread executor could not be created", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Replaces the thread pool which Spring MVC uses for StreamingResponseBody and other async results
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(VirtualThreadProperties properties,
+                                                                               DataSource dataSource,
+                                                                               MeterRegistry meterRegistry) {
+        int maxConcurrentRequests = properties.getMaxConcurrentRequests() != null
+                ? properties.getMaxConcurrentRequests()
+                : connectionPoolSize(dataSource);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(maxConcurrentRequests, properties.getAcquireTimeout(), meterRegistry));
+        registration.addUrlPatterns("/news/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * size of the pool behind the data source, with read replicas the one of the primary
+     */
+    private static int connectionPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int maximumPoolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return maximumPoolSize > 0 ? maximumPoolSize : HIKARI_DEFAULT_POOL_SIZE;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Connection pool of " + dataSource.getClass().getName() + " is unknown", e);
+        }
+        throw new IllegalStateException("Size of the connection pool is unknown for " + dataSource.getClass().getName()
+                + ", set app.virtual-threads.max-concurrent-requests");
+    }
+}
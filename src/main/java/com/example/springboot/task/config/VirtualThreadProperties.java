@@ -0,0 +1,31 @@
+package com.example.springboot.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the virtual-thread request execution mode, see VirtualThreadConfig
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * serve requests on virtual threads instead of the Tomcat thread pool, requires Java 21 or later
+     */
+    private boolean enabled = false;
+
+    /**
+     * requests to /news/** allowed to run at the same time, defaults to the maximum size of the Hikari pool
+     */
+    private Integer maxConcurrentRequests;
+
+    /**
+     * how long a request waits for a free slot before it is rejected with 503 Service Unavailable
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+}
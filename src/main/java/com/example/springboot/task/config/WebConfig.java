@@ -0,0 +1,58 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.converter.BinaryObjectMappers;
+import com.example.springboot.task.converter.BoundedListHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.example.springboot.task.util.UtilConstants.MAX_BATCH_SIZE;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Reads list bodies item by item, so a batch over MAX_BATCH_SIZE is rejected before it is read whole
+     */
+    @Bean
+    public BoundedListHttpMessageConverter boundedListHttpMessageConverter(ObjectMapper objectMapper) {
+        return new BoundedListHttpMessageConverter(objectMapper, MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Replaces the default CBOR converter, which would not pick up the Jackson settings of the application
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(BinaryObjectMappers.cbor(builder));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(BinaryObjectMappers.smile(builder));
+    }
+
+    /**
+     * The representation of a news or comment URL depends on the Accept header, caches must keep them apart
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/news/**");
+    }
+}
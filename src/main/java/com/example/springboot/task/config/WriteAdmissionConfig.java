@@ -0,0 +1,90 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.concurrency.LoadShedder;
+import com.example.springboot.task.concurrency.RateLimiter;
+import com.example.springboot.task.concurrency.WriteAdmission;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.IntSupplier;
+
+/**
+ * Rate limiting and load shedding in front of news and comment creation (app.write-admission.enabled, on by default),
+ * so a wave of writes is answered with 429 or 503 instead of saturating the database and starving reads
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.write-admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(WriteAdmissionProperties.class)
+public class WriteAdmissionConfig implements WebMvcConfigurer {
+
+    private final WriteAdmissionProperties properties;
+
+    private final DataSource dataSource;
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public WriteAdmissionConfig(WriteAdmissionProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public LoadShedder loadShedder() {
+        LoadShedder loadShedder = new LoadShedder(properties.getSheddingLatency(),
+                properties.getSheddingPendingConnections(), pendingConnections(dataSource));
+        Gauge.builder("http.server.requests.latency.average", loadShedder, LoadShedder::latencyAverageMillis)
+                .baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("http.server.requests.pressure", loadShedder, LoadShedder::pressure).register(meterRegistry);
+        return loadShedder;
+    }
+
+    @Bean
+    public WriteAdmission writeAdmission(LoadShedder loadShedder) {
+        return new WriteAdmission(rateLimiter(properties.getClient()), rateLimiter(properties.getUser()),
+                rateLimiter(properties.getNews()), rateLimiter(properties.getGlobal()), loadShedder, meterRegistry);
+    }
+
+    /**
+     * Latency is measured on all news and comment requests except the streamed exports
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(loadShedder()).addPathPatterns("/news/**")
+                .excludePathPatterns("/news/export", "/news/*/comments/export");
+    }
+
+    private RateLimiter rateLimiter(WriteAdmissionProperties.Limit limit) {
+        return new RateLimiter(limit.getRate(), limit.getBurst(), properties.getMaxKeys());
+    }
+
+    /**
+     * Threads waiting for a connection of the Hikari pool, with read replicas of the primary one
+     */
+    private static IntSupplier pendingConnections(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+                return () -> {
+                    HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+                    return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+                };
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Connection pool of " + dataSource.getClass().getName() + " is unknown", e);
+        }
+        return () -> 0;
+    }
+}
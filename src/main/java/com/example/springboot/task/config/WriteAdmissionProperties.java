@@ -0,0 +1,75 @@
+package com.example.springboot.task.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of rate limiting and load shedding of news and comment creation, see WriteAdmissionConfig
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.write-admission")
+public class WriteAdmissionProperties {
+
+    /**
+     * rate limit and shed POST /news and POST /news/{newsId}/comments
+     */
+    private boolean enabled = true;
+
+    /**
+     * writes of one client address
+     */
+    private Limit client = new Limit(5, 20);
+
+    /**
+     * comments of one userName
+     */
+    private Limit user = new Limit(1, 10);
+
+    /**
+     * comments of one news
+     */
+    private Limit news = new Limit(50, 200);
+
+    /**
+     * writes of all clients together
+     */
+    private Limit global = new Limit(1000, 2000);
+
+    /**
+     * token buckets kept per limit, the least recently used are dropped first
+     */
+    private long maxKeys = 100_000;
+
+    /**
+     * writes are shed while the moving average of request latency is above it
+     */
+    private Duration sheddingLatency = Duration.ofMillis(500);
+
+    /**
+     * writes are shed while more threads than this wait for a connection of the pool
+     */
+    private int sheddingPendingConnections = 10;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /**
+         * tokens per second
+         */
+        private double rate;
+
+        /**
+         * tokens of a full bucket, writes allowed at once after a quiet period
+         */
+        private int burst;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.trending.TrendingNews;
+import com.example.springboot.task.validator.CommentDtoValidator;
+import com.example.springboot.task.writebehind.CommentBatchWriter;
+import com.example.springboot.task.writebehind.CommentIdAllocator;
+import com.example.springboot.task.writebehind.CommentJournal;
+import com.example.springboot.task.writebehind.CommentWriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+import static com.example.springboot.task.util.UtilConstants.COMMENTS_ID_SEQUENCE;
+import static com.example.springboot.task.util.UtilConstants.IN_CLAUSE_BATCH_SIZE;
+
+/**
+ * Opt-in mode (app.write-behind.enabled=true) in which POST /news/{newsId}/comments answers 202 Accepted
+ * as soon as the comment is in the journal, see CommentWriteBehindQueue
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.write-behind", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+
+    @Bean
+    public CommentJournal commentJournal(WriteBehindProperties properties, ObjectMapper objectMapper) {
+        return new CommentJournal(properties.getJournalDirectory(), objectMapper, properties.isFsync(),
+                properties.getJournalCompactSize().toBytes());
+    }
+
+    @Bean
+    public CommentIdAllocator commentIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        String nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceNextValString(COMMENTS_ID_SEQUENCE);
+        return new CommentIdAllocator(jdbcTemplate, nextValueSql);
+    }
+
+    @Bean
+    public CommentBatchWriter commentBatchWriter(NamedParameterJdbcTemplate jdbcTemplate,
+                                                 PlatformTransactionManager transactionManager,
+                                                 NewsRepository newsRepository, CacheInvalidator cacheInvalidator,
+                                                 Optional<TrendingNews> trendingNews) {
+        return new CommentBatchWriter(jdbcTemplate, new TransactionTemplate(transactionManager), newsRepository,
+                cacheInvalidator, trendingNews);
+    }
+
+    @Bean
+    public CommentWriteBehindQueue commentWriteBehindQueue(WriteBehindProperties properties, CommentJournal commentJournal,
+                                                           CommentIdAllocator commentIdAllocator,
+                                                           CommentBatchWriter commentBatchWriter,
+                                                           CommentDtoValidator validator, NewsRepository newsRepository,
+                                                           MeterRegistry meterRegistry) {
+        if (properties.getBatchSize() < 1 || properties.getBatchSize() > IN_CLAUSE_BATCH_SIZE) {
+            throw new IllegalStateException("app.write-behind.batch-size must be between 1 and " + IN_CLAUSE_BATCH_SIZE);
+        }
+        return new CommentWriteBehindQueue(properties, commentJournal, commentIdAllocator, commentBatchWriter, validator,
+                newsRepository, meterRegistry);
+    }
+
+    /**
+     * Down once the journal has failed, the instance then refuses comments until it is restarted
+     */
+    @Bean
+    public HealthIndicator commentWriteBehindHealthIndicator(CommentWriteBehindQueue commentWriteBehindQueue,
+                                                             WriteBehindProperties properties) {
+        return () -> (commentWriteBehindQueue.isJournalWritable() ? Health.up() : Health.down())
+                .withDetail("journalDirectory", properties.getJournalDirectory().toString())
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.springboot.task.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Settings of the write-behind mode of comment creation, see WriteBehindConfig
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * accept new comments with 202 Accepted and write them to the database in batches
+     */
+    private boolean enabled = false;
+
+    /**
+     * comments accepted but not yet written, further comments are rejected with 503 Service Unavailable
+     */
+    private int queueCapacity = 100_000;
+
+    /**
+     * comments written in one transaction, at most {@link com.example.springboot.task.util.UtilConstants#IN_CLAUSE_BATCH_SIZE}
+     */
+    private int batchSize = 500;
+
+    /**
+     * how long the writer waits for a batch to fill up after its first comment
+     */
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    /**
+     * directory of the journal, accepted comments are replayed from it after a crash
+     */
+    private Path journalDirectory = Paths.get("data", "write-behind");
+
+    /**
+     * force the journal to disk before a comment is acknowledged; concurrent requests share one fsync
+     */
+    private boolean fsync = true;
+
+    /**
+     * the journal is truncated once it has grown to this size and everything in it has been written
+     */
+    private DataSize journalCompactSize = DataSize.ofMegabytes(64);
+
+    /**
+     * how long the existence of a news is remembered, so accepting a comment needs no query
+     */
+    private Duration newsExistsTtl = Duration.ofMinutes(1);
+
+    /**
+     * how long the writer may take on shutdown to write the comments still queued, the rest stays in the journal
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
@@ -1,12 +1,21 @@
 package com.example.springboot.task.controller;
 
+import com.example.springboot.task.concurrency.WriteAdmission;
+import com.example.springboot.task.dto.BatchResultDto;
 import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
+import com.example.springboot.task.exception.BatchTooLargeException;
+import com.example.springboot.task.export.ExportFormat;
+import com.example.springboot.task.export.Exporter;
 import com.example.springboot.task.service.CommentService;
+import com.example.springboot.task.util.ResourceVersion;
+import com.example.springboot.task.writebehind.CommentWriteBehindQueue;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,99 +26,229 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
+import static com.example.springboot.task.exception.ExceptionMessage.BATCH_TOO_LARGE;
+import static com.example.springboot.task.util.UtilConstants.DEFAULT_EXPORT_FORMAT;
 import static com.example.springboot.task.util.UtilConstants.DEFAULT_PAGE_NUMBER;
 import static com.example.springboot.task.util.UtilConstants.DEFAULT_PAGE_SIZE;
+import static com.example.springboot.task.util.UtilConstants.MAX_BATCH_SIZE;
 
 @RestController
 @RequestMapping("/news/{newsId}/comments")
 public class CommentController {
 
+    private static final LinkedHashMap<String, Function<CommentDto, Object>> EXPORT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        EXPORT_COLUMNS.put("id", CommentDto::getId);
+        EXPORT_COLUMNS.put("date", CommentDto::getDate);
+        EXPORT_COLUMNS.put("text", CommentDto::getText);
+        EXPORT_COLUMNS.put("userName", CommentDto::getUserName);
+    }
+
     private final CommentService commentService;
 
+    private final Exporter exporter;
+
+    /**
+     * present in write-behind mode only
+     */
+    private final Optional<CommentWriteBehindQueue> writeBehindQueue;
+
+    /**
+     * absent when app.write-admission.enabled=false
+     */
+    private final Optional<WriteAdmission> writeAdmission;
 
     @Autowired
-    public CommentController(CommentService commentService) {
+    public CommentController(CommentService commentService, Exporter exporter,
+                             Optional<CommentWriteBehindQueue> writeBehindQueue, Optional<WriteAdmission> writeAdmission) {
         this.commentService = commentService;
+        this.exporter = exporter;
+        this.writeBehindQueue = writeBehindQueue;
+        this.writeAdmission = writeAdmission;
     }
 
     /**
      * Make a request to receive all comments with pagination
      *
-     * @param newsId for check news
-     * @param page   zero-based page index, must not be negative.
-     * @param size   the size of the page to be returned, must be greater than 0.
+     * @param newsId  for check news
+     * @param page    zero-based page index, must not be negative.
+     * @param size    the size of the page to be returned, must be greater than 0.
+     * @param request carries the conditional headers
      * @return a list of objects comments with pagination, if any, otherwise an empty list
      */
     @ApiResponses({
             @ApiResponse(code = 200, message = "Comments has been successfully found"),
+            @ApiResponse(code = 304, message = "Comments have not been modified"),
             @ApiResponse(code = 404, message = "Comments not found")
     })
     @ApiOperation("Search all comments with pagination")
     @GetMapping(params = {"page", "size"})
     public ResponseEntity<List<CommentDto>> findAllComments(@PathVariable Long newsId,
                                                             @RequestParam(required = false, defaultValue = DEFAULT_PAGE_NUMBER) Integer page,
-                                                            @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
+                                                            @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size,
+                                                            WebRequest request) {
+        if (notModified(request, commentService.findVersion(newsId))) {
+            return null;
+        }
         List<CommentDto> list = commentService.findAll(newsId, page, size);
         return new ResponseEntity<>(list, HttpStatus.OK);
     }
 
+    /**
+     * Make a request to receive comments with keyset pagination
+     *
+     * @param newsId  for check news
+     * @param after   cursor returned with the previous page, empty for the first page
+     * @param size    the size of the page to be returned, must be greater than 0.
+     * @param request carries the conditional headers
+     * @return a page of objects comments with the cursor of the following page
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Comments has been successfully found"),
+            @ApiResponse(code = 304, message = "Comments have not been modified"),
+            @ApiResponse(code = 400, message = "Invalid cursor"),
+            @ApiResponse(code = 404, message = "News not found")
+    })
+    @ApiOperation("Search all comments with keyset pagination")
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDto<CommentDto>> findAllComments(@PathVariable Long newsId,
+                                                                     @RequestParam String after,
+                                                                     @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size,
+                                                                     WebRequest request) {
+        if (notModified(request, commentService.findVersion(newsId))) {
+            return null;
+        }
+        return new ResponseEntity<>(commentService.findAll(newsId, after, size), HttpStatus.OK);
+    }
+
     /**
      * Make a request to receive all comments
      *
-     * @param newsId for check news
+     * @param newsId  for check news
+     * @param request carries the conditional headers
      * @return a list of objects comments, if any, otherwise an empty list
      */
     @ApiResponses({
             @ApiResponse(code = 200, message = "Comments has been successfully found"),
+            @ApiResponse(code = 304, message = "Comments have not been modified"),
             @ApiResponse(code = 404, message = "Comments not found")
     })
     @ApiOperation("Search all comments")
     @GetMapping
-    public ResponseEntity<List<CommentDto>> findAllComments(@PathVariable Long newsId) {
+    public ResponseEntity<List<CommentDto>> findAllComments(@PathVariable Long newsId, WebRequest request) {
+        if (notModified(request, commentService.findVersion(newsId))) {
+            return null;
+        }
         List<CommentDto> commentDtoList = commentService.findAll(newsId);
         return new ResponseEntity<>(commentDtoList, HttpStatus.OK);
     }
 
     /**
-     * Search for comments by id
+     * Export all comments of the news, the body is streamed while the comments are read from the database
      *
      * @param newsId for check news
-     * @param id     the parameter by which we search for comments
-     * @return a comments object if any, otherwise HttpStatus.NOT_FOUND)
+     * @param format "ndjson" for one JSON object per line or "csv"
+     * @return attachment with all comments of the news, the most recent first
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Comments are being exported"),
+            @ApiResponse(code = 400, message = "Unsupported format"),
+            @ApiResponse(code = 404, message = "News not found")
+    })
+    @ApiOperation("Export all comments")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportComments(@PathVariable Long newsId,
+                                                                @RequestParam(required = false, defaultValue = DEFAULT_EXPORT_FORMAT) String format) {
+        commentService.checkNewsExists(newsId);
+        return exporter.export("news-" + newsId + "-comments", ExportFormat.of(format), EXPORT_COLUMNS,
+                consumer -> commentService.exportAll(newsId, consumer));
+    }
+
+    /**
+     * Search for comments by id
+     *
+     * @param newsId  for check news
+     * @param id      the parameter by which we search for comments
+     * @param request carries the conditional headers
+     * @return a comments object if any, HttpStatus.NOT_MODIFIED if the client has the current one, otherwise HttpStatus.NOT_FOUND)
      */
     @ApiResponses({
             @ApiResponse(code = 200, message = "Comment has been successfully found"),
+            @ApiResponse(code = 304, message = "Comment has not been modified"),
             @ApiResponse(code = 404, message = "Comment not found")
     })
     @ApiOperation("Search comments by id")
     @GetMapping("/{id}")
-    public ResponseEntity<Optional<CommentDto>> findCommentById(@PathVariable Long newsId, @PathVariable Long id) {
+    public ResponseEntity<Optional<CommentDto>> findCommentById(@PathVariable Long newsId, @PathVariable Long id,
+                                                                WebRequest request) {
+        Optional<ResourceVersion> version = commentService.findVersion(newsId, id);
+        if (!version.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (notModified(request, version.get())) {
+            return null;
+        }
         Optional<CommentDto> dtoOptional = commentService.findById(newsId, id);
         return dtoOptional.map(commentDto -> new ResponseEntity<>(dtoOptional, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     /**
-     * Saving object comments
+     * Saving object comments, in write-behind mode the comment is only accepted and written a moment later
      *
      * @param newsId     for check news
      * @param commentDto object comments to save
-     * @return saved comments with HttpStatus.CREATED
+     * @return saved comments with HttpStatus.CREATED, or the accepted comment with its id and HttpStatus.ACCEPTED
      */
     @ApiResponses({
             @ApiResponse(code = 201, message = "Comment has been successfully created"),
-            @ApiResponse(code = 400, message = "Incorrect data")
+            @ApiResponse(code = 202, message = "Comment has been accepted and will be written shortly"),
+            @ApiResponse(code = 400, message = "Incorrect data"),
+            @ApiResponse(code = 429, message = "Too many comments of the client, the user or the news"),
+            @ApiResponse(code = 503, message = "Server overloaded, too many comments waiting to be written or comment journal failed")
     })
     @ApiOperation("Saving comments")
     @PostMapping
     public ResponseEntity<CommentDto> createComment(@PathVariable Long newsId, @RequestBody CommentDto commentDto) {
+        writeAdmission.ifPresent(admission -> admission.admitComment(newsId, commentDto.getUserName()));
+        if (writeBehindQueue.isPresent()) {
+            return new ResponseEntity<>(writeBehindQueue.get().accept(newsId, commentDto), HttpStatus.ACCEPTED);
+        }
         return new ResponseEntity<>(commentService.create(newsId, commentDto), HttpStatus.CREATED);
     }
 
+    /**
+     * Saving list of comments in one transaction
+     *
+     * @param newsId         for check news
+     * @param commentDtoList objects comments to save, a JSON array or one JSON object per line,
+     *                       read by BoundedListHttpMessageConverter which stops after MAX_BATCH_SIZE items
+     * @return result of every item with HttpStatus.OK
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Comments has been processed, see the result of every item"),
+            @ApiResponse(code = 400, message = "Incorrect data"),
+            @ApiResponse(code = 404, message = "News not found"),
+            @ApiResponse(code = 413, message = "Too many comments in batch")
+    })
+    @ApiOperation("Saving list of comments")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> createComments(@PathVariable Long newsId, @RequestBody List<CommentDto> commentDtoList) {
+        if (commentDtoList.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException(BATCH_TOO_LARGE + MAX_BATCH_SIZE);
+        }
+        return new ResponseEntity<>(commentService.createAll(newsId, commentDtoList), HttpStatus.OK);
+    }
+
     /**
      * Update object comments
      *
@@ -119,7 +258,8 @@ public class CommentController {
      */
     @ApiResponses({
             @ApiResponse(code = 201, message = "Comment has been updated"),
-            @ApiResponse(code = 400, message = "Incorrect data")
+            @ApiResponse(code = 400, message = "Incorrect data"),
+            @ApiResponse(code = 409, message = "Comment has been modified since the given version")
     })
     @ApiOperation("Update comments")
     @PutMapping
@@ -145,4 +285,14 @@ public class CommentController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * Answer the conditional headers of the request, the response is set up as 304 Not Modified when they match
+     *
+     * @param request carries If-None-Match and If-Modified-Since
+     * @param version current version of the requested resource
+     * @return true if the client already has the current resource
+     */
+    private boolean notModified(WebRequest request, ResourceVersion version) {
+        return request.checkNotModified(version.getETag(), version.getLastModified());
+    }
 }
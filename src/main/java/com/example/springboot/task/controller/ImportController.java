@@ -0,0 +1,92 @@
+package com.example.springboot.task.controller;
+
+import com.example.springboot.task.bulkimport.ImportFormat;
+import com.example.springboot.task.bulkimport.ImportKind;
+import com.example.springboot.task.dto.ImportJobDto;
+import com.example.springboot.task.service.ImportService;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/imports")
+public class ImportController {
+
+    private final ImportService importService;
+
+    @Autowired
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Upload a file of news or comments, it is imported in the background
+     *
+     * @param kind    "news" or "comments"
+     * @param format  "ndjson" with one object per line or "csv" with a header line
+     * @param content the file as the request body
+     * @return the pending import with HttpStatus.ACCEPTED, its progress is at the Location
+     */
+    @ApiResponses({
+            @ApiResponse(code = 202, message = "File has been accepted and will be imported"),
+            @ApiResponse(code = 400, message = "Unsupported kind or format"),
+            @ApiResponse(code = 413, message = "File exceeds app.import.max-upload-size")
+    })
+    @ApiOperation("Import news or comments from a file")
+    @PostMapping
+    public ResponseEntity<ImportJobDto> createImport(@RequestParam String kind, @RequestParam String format,
+                                                     InputStream content) {
+        ImportJobDto importJob = importService.create(ImportKind.of(kind), ImportFormat.of(format), content);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri().replaceQuery(null)
+                        .path("/{id}").buildAndExpand(importJob.getId()).toUri())
+                .body(importJob);
+    }
+
+    /**
+     * Make a request to receive the progress of an import
+     *
+     * @param id of the import
+     * @return status, imported and rejected records, if any, otherwise HttpStatus.NOT_FOUND
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Import has been successfully found"),
+            @ApiResponse(code = 404, message = "Import not found")
+    })
+    @ApiOperation("Search import by id")
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDto> findImportById(@PathVariable Long id) {
+        return importService.findById(id)
+                .map(importJob -> new ResponseEntity<>(importJob, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Continue a failed import from its checkpoint
+     *
+     * @param id of the failed import
+     * @return the pending import with HttpStatus.ACCEPTED
+     */
+    @ApiResponses({
+            @ApiResponse(code = 202, message = "Import will be continued"),
+            @ApiResponse(code = 400, message = "Import has not failed"),
+            @ApiResponse(code = 404, message = "Import not found")
+    })
+    @ApiOperation("Resume a failed import")
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ImportJobDto> resumeImport(@PathVariable Long id) {
+        return new ResponseEntity<>(importService.resume(id), HttpStatus.ACCEPTED);
+    }
+}
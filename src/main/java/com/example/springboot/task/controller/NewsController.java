@@ -1,13 +1,22 @@
 package com.example.springboot.task.controller;
 
+import com.example.springboot.task.concurrency.WriteAdmission;
+import com.example.springboot.task.dto.CursorPageDto;
 import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.dto.NewsSearchResultDto;
+import com.example.springboot.task.dto.NewsSort;
+import com.example.springboot.task.dto.TrendingNewsDto;
+import com.example.springboot.task.dto.TrendingWindow;
+import com.example.springboot.task.export.ExportFormat;
+import com.example.springboot.task.export.Exporter;
 import com.example.springboot.task.service.NewsService;
+import com.example.springboot.task.trending.TrendingNews;
+import com.example.springboot.task.util.ResourceVersion;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,47 +28,107 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
+import static com.example.springboot.task.util.UtilConstants.DEFAULT_EXPORT_FORMAT;
+import static com.example.springboot.task.util.UtilConstants.DEFAULT_NEWS_SORT;
 import static com.example.springboot.task.util.UtilConstants.DEFAULT_PAGE_NUMBER;
 import static com.example.springboot.task.util.UtilConstants.DEFAULT_PAGE_SIZE;
+import static com.example.springboot.task.util.UtilConstants.DEFAULT_TRENDING_SIZE;
+import static com.example.springboot.task.util.UtilConstants.DEFAULT_TRENDING_WINDOW;
+import static com.example.springboot.task.util.UtilConstants.INCLUDE_COMMENTS;
 
 @RestController
 @RequestMapping("/news")
 public class NewsController {
 
+    private static final LinkedHashMap<String, Function<NewsDto, Object>> EXPORT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        EXPORT_COLUMNS.put("id", NewsDto::getId);
+        EXPORT_COLUMNS.put("date", NewsDto::getDate);
+        EXPORT_COLUMNS.put("title", NewsDto::getTitle);
+        EXPORT_COLUMNS.put("text", NewsDto::getText);
+    }
+
     private final NewsService newsService;
 
+    private final Exporter exporter;
+
+    /**
+     * absent when app.write-admission.enabled=false
+     */
+    private final Optional<WriteAdmission> writeAdmission;
+
+    /**
+     * absent when app.trending.enabled=false
+     */
+    private final Optional<TrendingNews> trendingNews;
+
     @Autowired
-    public NewsController(NewsService newsService) {
+    public NewsController(NewsService newsService, Exporter exporter, Optional<WriteAdmission> writeAdmission,
+                          Optional<TrendingNews> trendingNews) {
         this.newsService = newsService;
+        this.exporter = exporter;
+        this.writeAdmission = writeAdmission;
+        this.trendingNews = trendingNews;
     }
 
     /**
      * Make a request to receive all news with pagination
      *
-     * @param page zero-based page index, must not be negative.
-     * @param size the size of the page to be returned, must be greater than 0.
+     * @param page    zero-based page index, must not be negative.
+     * @param size    the size of the page to be returned, must be greater than 0.
+     * @param sort    "date" for the most recent, "comments" for the most discussed, "activity" for the recently commented news first
+     * @param include "comments" to load comments of every news, otherwise only news are returned
      * @return a list of objects news with pagination, if any, otherwise an empty list
      */
     @ApiResponses({
             @ApiResponse(code = 200, message = "News has been successfully found"),
+            @ApiResponse(code = 400, message = "Unsupported sort"),
             @ApiResponse(code = 404, message = "News not found")
     })
     @ApiOperation("Search all news with pagination")
     @GetMapping(params = {"page", "size"})
     public ResponseEntity<List<NewsDto>> findAllNews(@RequestParam(required = false, defaultValue = DEFAULT_PAGE_NUMBER) Integer page,
-                                                     @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "date"));
+                                                     @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size,
+                                                     @RequestParam(required = false, defaultValue = DEFAULT_NEWS_SORT) String sort,
+                                                     @RequestParam(required = false) String include) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+
+        return new ResponseEntity<>(newsService.findAll(pageRequest, NewsSort.of(sort), INCLUDE_COMMENTS.equals(include)), HttpStatus.OK);
+    }
 
-        return new ResponseEntity<>(newsService.findAll(pageRequest), HttpStatus.OK);
+    /**
+     * Make a request to receive news with keyset pagination
+     *
+     * @param after   cursor returned with the previous page, empty for the first page
+     * @param size    the size of the page to be returned, must be greater than 0.
+     * @param include "comments" to load comments of every news, otherwise only news are returned
+     * @return a page of objects news with the cursor of the following page
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "News has been successfully found"),
+            @ApiResponse(code = 400, message = "Invalid cursor")
+    })
+    @ApiOperation("Search all news with keyset pagination")
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDto<NewsDto>> findAllNews(@RequestParam String after,
+                                                              @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size,
+                                                              @RequestParam(required = false) String include) {
+        return new ResponseEntity<>(newsService.findAll(after, size, INCLUDE_COMMENTS.equals(include)), HttpStatus.OK);
     }
 
     /**
      * Make a request to receive all news
      *
+     * @param include "comments" to load comments of every news, otherwise only news are returned
      * @return a list of objects news, if any, otherwise an empty list
      */
     @ApiResponses({
@@ -68,24 +137,90 @@ public class NewsController {
     })
     @ApiOperation("Search all news")
     @GetMapping
-    public ResponseEntity<List<NewsDto>> findAllNews() {
-        return new ResponseEntity<>(newsService.findAll(), HttpStatus.OK);
+    public ResponseEntity<List<NewsDto>> findAllNews(@RequestParam(required = false) String include) {
+        return new ResponseEntity<>(newsService.findAll(INCLUDE_COMMENTS.equals(include)), HttpStatus.OK);
     }
 
     /**
-     * Search for news by id
+     * Full-text search over titles and texts of news
      *
-     * @param id the parameter by which we search for news
-     * @return an object news if any, otherwise HttpStatus.NOT_FOUND)
+     * @param q     words to search for, supports quoted phrases, "or" and "-" to exclude a word
+     * @param after cursor returned with the previous page, empty for the first page
+     * @param size  the size of the page to be returned, must be greater than 0.
+     * @return a page of found news ordered by relevance with the cursor of the following page
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Search has been successfully completed"),
+            @ApiResponse(code = 400, message = "Invalid search query or cursor")
+    })
+    @ApiOperation("Full-text search of news")
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDto<NewsSearchResultDto>> searchNews(@RequestParam String q,
+                                                                        @RequestParam(required = false) String after,
+                                                                        @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
+        return new ResponseEntity<>(newsService.search(q, after, size), HttpStatus.OK);
+    }
+
+    /**
+     * News with the most comments in a sliding window, served from memory
+     *
+     * @param window "5m", "1h" or "24h"
+     * @param size   at most this many news
+     * @return ids of the news with their comments in the window, the most commented first,
+     * HttpStatus.NOT_FOUND if trending news are turned off
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Trending news has been successfully found"),
+            @ApiResponse(code = 400, message = "Unsupported window"),
+            @ApiResponse(code = 404, message = "Trending news are turned off")
+    })
+    @ApiOperation("Search the most commented news of the last 5 minutes, hour or day")
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingNewsDto>> findTrendingNews(@RequestParam(required = false, defaultValue = DEFAULT_TRENDING_WINDOW) String window,
+                                                                  @RequestParam(required = false, defaultValue = DEFAULT_TRENDING_SIZE) Integer size) {
+        TrendingWindow trendingWindow = TrendingWindow.of(window);
+        return trendingNews.map(trending -> new ResponseEntity<>(trending.top(trendingWindow, size), HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Export all news without comments, the body is streamed while the news are read from the database
+     *
+     * @param format "ndjson" for one JSON object per line or "csv"
+     * @return attachment with all news, the most recent first
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "News are being exported"),
+            @ApiResponse(code = 400, message = "Unsupported format")
+    })
+    @ApiOperation("Export all news")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNews(@RequestParam(required = false, defaultValue = DEFAULT_EXPORT_FORMAT) String format) {
+        return exporter.export("news", ExportFormat.of(format), EXPORT_COLUMNS, newsService::exportAll);
+    }
+
+    /**
+     * Search for news by id, answers If-None-Match and If-Modified-Since from the version of the news and its comments
+     *
+     * @param id      the parameter by which we search for news
+     * @param request carries the conditional headers
+     * @return an object news if any, HttpStatus.NOT_MODIFIED if the client has the current one, otherwise HttpStatus.NOT_FOUND)
      */
     @ApiResponses({
             @ApiResponse(code = 200, message = "News has been successfully found"),
+            @ApiResponse(code = 304, message = "News has not been modified"),
             @ApiResponse(code = 404, message = "News not found")
     })
     @ApiOperation("Search news by id")
     @GetMapping("/{id}")
-    public ResponseEntity<Optional<NewsDto>> findNewsById(@PathVariable Long id) {
-
+    public ResponseEntity<Optional<NewsDto>> findNewsById(@PathVariable Long id, WebRequest request) {
+        Optional<ResourceVersion> version = newsService.findVersion(id);
+        if (!version.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (request.checkNotModified(version.get().getETag(), version.get().getLastModified())) {
+            return null;
+        }
         Optional<NewsDto> optional = newsService.findById(id);
         return optional.map(newsDto -> new ResponseEntity<>(optional, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
@@ -100,11 +235,14 @@ public class NewsController {
      */
     @ApiResponses({
             @ApiResponse(code = 201, message = "News has been successfully created"),
-            @ApiResponse(code = 400, message = "Incorrect data")
+            @ApiResponse(code = 400, message = "Incorrect data"),
+            @ApiResponse(code = 429, message = "Too many news of the client"),
+            @ApiResponse(code = 503, message = "Server overloaded")
     })
     @ApiOperation("Saving news")
     @PostMapping
     public ResponseEntity<NewsDto> createNews(@RequestBody NewsDto newsDto) {
+        writeAdmission.ifPresent(WriteAdmission::admitNews);
 
         return new ResponseEntity<>(newsService.create(newsDto), HttpStatus.CREATED);
     }
@@ -117,7 +255,8 @@ public class NewsController {
      */
     @ApiResponses({
             @ApiResponse(code = 201, message = "News has been updated"),
-            @ApiResponse(code = 400, message = "Incorrect data")
+            @ApiResponse(code = 400, message = "Incorrect data"),
+            @ApiResponse(code = 409, message = "News has been modified since the given version")
     })
     @ApiOperation("Update news")
     @PutMapping
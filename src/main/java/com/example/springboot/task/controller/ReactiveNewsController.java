@@ -0,0 +1,100 @@
+package com.example.springboot.task.controller;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.service.ReactiveNewsService;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only variant of the news and comment endpoints on R2DBC, no request thread waits for the database.
+ * Lists are returned as a JSON array when the client accepts only application/json,
+ * otherwise they are streamed one object per line (application/x-ndjson) as the rows arrive.
+ * News and comments are created, updated and deleted through NewsController and CommentController.
+ * <p>
+ * This is a Spring MVC controller: Flux and Mono are handled as async requests and written through the blocking
+ * servlet response, the application does not run on WebFlux.
+ */
+@RestController
+@RequestMapping("/reactive/news")
+public class ReactiveNewsController {
+
+    private final ReactiveNewsService newsService;
+
+    @Autowired
+    public ReactiveNewsController(ReactiveNewsService newsService) {
+        this.newsService = newsService;
+    }
+
+    /**
+     * Make a request to receive all news
+     *
+     * @return news without comments, the most recent first
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "News has been successfully found")
+    })
+    @ApiOperation("Search all news, non-blocking")
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<NewsDto> findAllNews() {
+        return newsService.findAll();
+    }
+
+    /**
+     * Search for news by id
+     *
+     * @param id the parameter by which we search for news
+     * @return an object news with its comments if any, otherwise HttpStatus.NOT_FOUND
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "News has been successfully found"),
+            @ApiResponse(code = 404, message = "News not found")
+    })
+    @ApiOperation("Search news by id, non-blocking")
+    @GetMapping("/{id}")
+    public Mono<NewsDto> findNewsById(@PathVariable Long id) {
+        return newsService.findById(id);
+    }
+
+    /**
+     * Make a request to receive all comments of the news
+     *
+     * @param newsId for check news
+     * @return comments of the news, the most recent first
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Comments has been successfully found"),
+            @ApiResponse(code = 404, message = "News not found")
+    })
+    @ApiOperation("Search all comments, non-blocking")
+    @GetMapping(value = "/{newsId}/comments", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<CommentDto> findAllComments(@PathVariable Long newsId) {
+        return newsService.findComments(newsId);
+    }
+
+    /**
+     * Search for comments by id
+     *
+     * @param newsId for check news
+     * @param id     the parameter by which we search for comments
+     * @return a comments object if any, otherwise HttpStatus.NOT_FOUND
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Comment has been successfully found"),
+            @ApiResponse(code = 404, message = "Comment not found")
+    })
+    @ApiOperation("Search comments by id, non-blocking")
+    @GetMapping("/{newsId}/comments/{id}")
+    public Mono<CommentDto> findCommentById(@PathVariable Long newsId, @PathVariable Long id) {
+        return newsService.findComment(newsId, id);
+    }
+}
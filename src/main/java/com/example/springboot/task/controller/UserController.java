@@ -0,0 +1,50 @@
+package com.example.springboot.task.controller;
+
+import com.example.springboot.task.dto.CursorPageDto;
+import com.example.springboot.task.dto.UserCommentDto;
+import com.example.springboot.task.service.CommentService;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.example.springboot.task.util.UtilConstants.DEFAULT_PAGE_SIZE;
+
+@RestController
+@RequestMapping("/users/{userName}")
+public class UserController {
+
+    private final CommentService commentService;
+
+    @Autowired
+    public UserController(CommentService commentService) {
+        this.commentService = commentService;
+    }
+
+    /**
+     * Make a request to receive the comments of the user across all news with keyset pagination
+     *
+     * @param userName author of the comments
+     * @param after    cursor returned with the previous page, empty for the first page
+     * @param size     the size of the page to be returned, must be greater than 0.
+     * @return a page of comments with their news ids, the most recent first, and the cursor of the following page
+     */
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Comments has been successfully found"),
+            @ApiResponse(code = 400, message = "Invalid cursor")
+    })
+    @ApiOperation("Search all comments of the user with keyset pagination")
+    @GetMapping("/comments")
+    public ResponseEntity<CursorPageDto<UserCommentDto>> findUserComments(@PathVariable String userName,
+                                                                          @RequestParam(required = false) String after,
+                                                                          @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
+        return new ResponseEntity<>(commentService.findAllByUserName(userName, after, size), HttpStatus.OK);
+    }
+}
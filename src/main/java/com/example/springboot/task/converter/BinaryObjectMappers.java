@@ -0,0 +1,46 @@
+package com.example.springboot.task.converter;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Object mappers of the binary wire formats, the schema is described in resources/schema/wire-format.cddl.
+ * They keep the modules and settings of the JSON mapper, but write dates as arrays of numbers instead of
+ * ISO strings and leave out null fields.
+ */
+public final class BinaryObjectMappers {
+
+    private BinaryObjectMappers() {
+    }
+
+    /**
+     * @param builder builder of the JSON mapper, consumed by this call
+     * @return mapper of application/cbor
+     */
+    public static ObjectMapper cbor(Jackson2ObjectMapperBuilder builder) {
+        return build(builder, new CBORFactory());
+    }
+
+    /**
+     * Repeated values such as the user name of the comments of one page are written once and referenced afterwards
+     *
+     * @param builder builder of the JSON mapper, consumed by this call
+     * @return mapper of application/x-jackson-smile
+     */
+    public static ObjectMapper smile(Jackson2ObjectMapperBuilder builder) {
+        return build(builder, SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build());
+    }
+
+    private static ObjectMapper build(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+    }
+}
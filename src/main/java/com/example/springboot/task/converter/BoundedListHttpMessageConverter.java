@@ -0,0 +1,139 @@
+package com.example.springboot.task.converter;
+
+import com.example.springboot.task.exception.BatchTooLargeException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static com.example.springboot.task.exception.ExceptionMessage.BATCH_TOO_LARGE;
+
+/**
+ * Reads a JSON array or a newline delimited JSON body (one object per line) into a list of at most maxItems,
+ * so endpoints taking {@code @RequestBody List<T>} accept application/x-ndjson as well as application/json.
+ * The items are read one by one and the body is rejected with 413 as soon as one item too many has been read,
+ * an oversized batch is never held in memory whole.
+ * Only the read path exists, {@link #canWrite} is always false so the write methods are never called.
+ */
+public class BoundedListHttpMessageConverter implements GenericHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxItems;
+
+    public BoundedListHttpMessageConverter(ObjectMapper objectMapper, int maxItems) {
+        this.objectMapper = objectMapper;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return elementType(type) != null && canRead(mediaType);
+    }
+
+    /**
+     * A class alone carries no element type to read the items into
+     */
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return Arrays.asList(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+    }
+
+    /**
+     * @throws BatchTooLargeException if the body holds more than maxItems items
+     */
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        Type elementType = elementType(type);
+        if (elementType == null) {
+            throw new HttpMessageNotReadableException("Only collections are read, not " + type, inputMessage);
+        }
+        ObjectReader reader = objectMapper.readerFor(objectMapper.getTypeFactory().constructType(elementType));
+        boolean ndjson = MediaType.APPLICATION_NDJSON.includes(inputMessage.getHeaders().getContentType());
+        List<Object> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputMessage.getBody())) {
+            if (!ndjson && parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException("JSON body is not an array", inputMessage);
+            }
+            JsonToken end = ndjson ? null : JsonToken.END_ARRAY;
+            JsonToken token;
+            while ((token = parser.nextToken()) != end) {
+                if (token == null) {
+                    throw new HttpMessageNotReadableException("JSON array is not closed", inputMessage);
+                }
+                if (items.size() == maxItems) {
+                    throw new BatchTooLargeException(BATCH_TOO_LARGE + maxItems);
+                }
+                items.add(reader.readValue(parser));
+            }
+            if (!ndjson && parser.nextToken() != null) {
+                throw new HttpMessageNotReadableException("Content after the JSON array", inputMessage);
+            }
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed JSON: " + e.getMessage(), e, inputMessage);
+        }
+        return items;
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public void write(Object o, Type type, MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Lists are not written by this converter");
+    }
+
+    @Override
+    public void write(Object o, MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Lists are not written by this converter");
+    }
+
+    private static boolean canRead(MediaType mediaType) {
+        return mediaType == null || MediaType.APPLICATION_JSON.includes(mediaType)
+                || MediaType.APPLICATION_NDJSON.includes(mediaType);
+    }
+
+    private static Type elementType(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            if (parameterizedType.getRawType() instanceof Class
+                    && ((Class<?>) parameterizedType.getRawType()).isAssignableFrom(List.class)
+                    && Collection.class.isAssignableFrom((Class<?>) parameterizedType.getRawType())
+                    && parameterizedType.getActualTypeArguments().length == 1) {
+                return parameterizedType.getActualTypeArguments()[0];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springboot.task.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reads of the annotated method go to the primary even inside a read-only transaction, see ReadReplicaRoutingDataSource.
+ * For results which outlive the request, such as cached values and the versions behind ETags: read from a lagging
+ * replica right after a write, they would be served stale until they expire.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
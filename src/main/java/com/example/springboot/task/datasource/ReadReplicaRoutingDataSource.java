@@ -0,0 +1,198 @@
+package com.example.springboot.task.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions to the replicas in turn and everything else to the primary.
+ * <p>
+ * The lag of every replica is measured every health-check-interval; a replica which cannot be reached or lags
+ * more than max-lag behind is skipped until a later check finds it in sync again. With no replica available
+ * read-only transactions fall back to the primary.
+ * <p>
+ * The transaction is known to be read-only only after its connection has been requested, so the data source
+ * has to be wrapped into a LazyConnectionDataSourceProxy, which asks for the connection on the first statement.
+ * <p>
+ * Reads marked with {@link ReadFromPrimary} use the primary in read-only transactions too.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final double maxLagSeconds;
+
+    private final Duration healthCheckInterval;
+
+    private final String lagQuery;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter fallbacks;
+
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * @param primary  data source of all writes
+     * @param replicas data sources of read-only transactions by their names
+     */
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                        Duration healthCheckInterval, String lagQuery, MeterRegistry meterRegistry) {
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.healthCheckInterval = healthCheckInterval;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targetDataSources.put(name, dataSource);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", name).baseUnit("seconds").register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("replica", name).register(meterRegistry);
+        });
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        this.fallbacks = meterRegistry.counter("datasource.replica.fallbacks");
+    }
+
+    /**
+     * Measures the replicas once before the first transaction, then every health-check-interval
+     */
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || PRIMARY_REQUIRED.get() != null) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Send the connections requested by the current thread to the primary until {@link #releasePrimary()}
+     *
+     * @return false if the thread was already bound to the primary, then only the outer call may release it
+     */
+    public static boolean requirePrimary() {
+        if (PRIMARY_REQUIRED.get() != null) {
+            return false;
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return true;
+    }
+
+    public static void releasePrimary() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * Marks every replica available or not by its current lag
+     */
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+    }
+
+    private void check(Replica replica) {
+        boolean available;
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            replica.lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            available = replica.lagSeconds <= maxLagSeconds;
+            if (!available && replica.available) {
+                LOGGER.warn("Replica {} is {} s behind the primary, reading from the other replicas", replica.name,
+                        replica.lagSeconds);
+            }
+        } catch (SQLException e) {
+            replica.lagSeconds = Double.NaN;
+            available = false;
+            if (replica.available) {
+                LOGGER.warn("Replica {} is unreachable, reading from the other replicas", replica.name, e);
+            }
+        }
+        if (available && !replica.available) {
+            LOGGER.info("Replica {} is available, lag {} s", replica.name, replica.lagSeconds);
+        }
+        replica.available = available;
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools; the primary is closed by its own bean
+     */
+    @Override
+    public void close() throws IOException {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable) {
+                ((Closeable) replica.dataSource).close();
+            }
+        }
+    }
+
+    private static class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean available;
+
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
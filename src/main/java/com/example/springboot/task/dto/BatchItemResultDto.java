@@ -0,0 +1,25 @@
+package com.example.springboot.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResultDto {
+    /**
+     * zero-based position of the item in the request
+     */
+    int index;
+
+    Long id;
+
+    BatchItemStatus status;
+
+    List<String> errors;
+}
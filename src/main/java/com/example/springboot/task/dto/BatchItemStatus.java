@@ -0,0 +1,6 @@
+package com.example.springboot.task.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    REJECTED
+}
@@ -0,0 +1,20 @@
+package com.example.springboot.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResultDto {
+    int created;
+
+    int rejected;
+
+    List<BatchItemResultDto> items;
+}
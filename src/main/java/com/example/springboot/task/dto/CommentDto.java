@@ -20,4 +20,15 @@ public class CommentDto {
 
     String userName;
 
+    /**
+     * version read by the client, an update with an outdated version is rejected with 409 Conflict
+     */
+    Long version;
+
+    public CommentDto(Long id, LocalDateTime date, String text, String userName) {
+        this.id = id;
+        this.date = date;
+        this.text = text;
+        this.userName = userName;
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.springboot.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDto<T> {
+    List<T> content;
+
+    /**
+     * cursor of the following page, null if this page is the last one
+     */
+    String nextCursor;
+}
@@ -0,0 +1,37 @@
+package com.example.springboot.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobDto {
+    Long id;
+    String kind;
+    String format;
+    String status;
+    long fileSize;
+
+    /**
+     * bytes of the file imported so far, the progress
+     */
+    long processedBytes;
+    long processedLines;
+    long imported;
+    long rejected;
+
+    /**
+     * line and reason of the first rejected records, one per line
+     */
+    String rejections;
+    String error;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    LocalDateTime finishedAt;
+}
@@ -1,10 +1,10 @@
 package com.example.springboot.task.dto;
 
-import com.example.springboot.task.entity.Comment;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,7 +18,15 @@ public class NewsDto {
     LocalDateTime date;
     String title;
     String text;
-    List<Comment> commentList;
+
+    /**
+     * version read by the client, an update with an outdated version is rejected with 409 Conflict
+     */
+    Long version;
+    Integer commentCount;
+    LocalDateTime lastCommentAt;
+    @ToString.Exclude
+    List<CommentDto> commentList;
 
     public NewsDto(Long id, LocalDateTime date, String title, String text) {
         this.id = id;
@@ -26,4 +34,16 @@ public class NewsDto {
         this.title = title;
         this.text = text;
     }
+
+    /**
+     * used by the constructor expressions of {@link com.example.springboot.task.repository.NewsRepository},
+     * the comments are attached separately
+     */
+    public NewsDto(Long id, LocalDateTime date, String title, String text, Long version, Integer commentCount,
+                   LocalDateTime lastCommentAt) {
+        this(id, date, title, text);
+        this.version = version;
+        this.commentCount = commentCount;
+        this.lastCommentAt = lastCommentAt;
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.springboot.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NewsSearchResultDto {
+    Long id;
+    LocalDateTime date;
+    String title;
+
+    /**
+     * fragments of the news text, matched words are wrapped in &lt;b&gt; tags
+     */
+    String snippet;
+
+    /**
+     * relevance of the news, title matches weigh more than text matches
+     */
+    Float rank;
+}
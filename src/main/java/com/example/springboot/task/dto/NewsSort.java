@@ -0,0 +1,42 @@
+package com.example.springboot.task.dto;
+
+import com.example.springboot.task.exception.InvalidSortException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_SORT;
+
+@Getter
+@AllArgsConstructor
+public enum NewsSort {
+    /**
+     * the most recent news first
+     */
+    DATE("date"),
+    /**
+     * the most discussed news first
+     */
+    COMMENTS("comments"),
+    /**
+     * the news with the most recent comment first, news without comments last
+     */
+    ACTIVITY("activity");
+
+    private final String name;
+
+    /**
+     * Find order by the value of the "sort" parameter
+     *
+     * @param name "date", "comments" or "activity", case insensitive
+     * @return order of news
+     * @throws InvalidSortException if the order is not supported
+     */
+    public static NewsSort of(String name) {
+        for (NewsSort sort : values()) {
+            if (sort.name.equalsIgnoreCase(name)) {
+                return sort;
+            }
+        }
+        throw new InvalidSortException(INVALID_SORT + name);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.springboot.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingNewsDto {
+    Long newsId;
+
+    /**
+     * comments of the news in the window
+     */
+    int comments;
+}
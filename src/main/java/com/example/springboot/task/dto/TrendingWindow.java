@@ -0,0 +1,49 @@
+package com.example.springboot.task.dto;
+
+import com.example.springboot.task.exception.InvalidTrendingWindowException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_TRENDING_WINDOW;
+
+/**
+ * Sliding windows of trending news. Comments are counted in buckets, the window slides by one bucket at a time
+ */
+@Getter
+@AllArgsConstructor
+public enum TrendingWindow {
+    FIVE_MINUTES("5m", Duration.ofMinutes(5), Duration.ofSeconds(10)),
+    HOUR("1h", Duration.ofHours(1), Duration.ofMinutes(1)),
+    DAY("24h", Duration.ofHours(24), Duration.ofMinutes(15));
+
+    private final String name;
+
+    private final Duration length;
+
+    private final Duration bucket;
+
+    /**
+     * @return buckets in the window
+     */
+    public int buckets() {
+        return (int) (length.getSeconds() / bucket.getSeconds());
+    }
+
+    /**
+     * Find window by the value of the "window" parameter
+     *
+     * @param name "5m", "1h" or "24h", case insensitive
+     * @return window of trending news
+     * @throws InvalidTrendingWindowException if the window is not supported
+     */
+    public static TrendingWindow of(String name) {
+        for (TrendingWindow window : values()) {
+            if (window.name.equalsIgnoreCase(name)) {
+                return window;
+            }
+        }
+        throw new InvalidTrendingWindowException(INVALID_TRENDING_WINDOW + name);
+    }
+}
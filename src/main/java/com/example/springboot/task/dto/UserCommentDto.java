@@ -0,0 +1,29 @@
+package com.example.springboot.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Comment in the history of its user, with the news it belongs to
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserCommentDto {
+    Long id;
+
+    Long newsId;
+
+    LocalDateTime date;
+
+    String text;
+
+    String userName;
+
+    Long version;
+}
@@ -10,16 +10,25 @@ import lombok.Setter;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static com.example.springboot.task.util.UtilConstants.COMMENTS_ID_ALLOCATION_SIZE;
+import static com.example.springboot.task.util.UtilConstants.COMMENTS_ID_SEQUENCE;
 
 @Getter
 @Setter
@@ -31,7 +40,8 @@ import java.time.LocalDateTime;
 public class Comment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = COMMENTS_ID_SEQUENCE)
+    @SequenceGenerator(name = COMMENTS_ID_SEQUENCE, sequenceName = COMMENTS_ID_SEQUENCE, allocationSize = COMMENTS_ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -46,7 +56,16 @@ public class Comment {
     @Column(name = "user_name")
     private String userName;
 
-    @ManyToOne
+    @Version
+    private Long version;
+
+    /**
+     * time of the last change in UTC, the Last-Modified of the resource
+     */
+    @Column(name = "last_modified", nullable = false)
+    private LocalDateTime lastModified;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "news_id")
     @JsonBackReference
     private News news;
@@ -58,6 +77,12 @@ public class Comment {
         this.userName = userName;
     }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = LocalDateTime.now(ZoneOffset.UTC);
+    }
+
 
     @Override
     public String toString() {
@@ -0,0 +1,95 @@
+package com.example.springboot.task.entity;
+
+import com.example.springboot.task.bulkimport.ImportFormat;
+import com.example.springboot.task.bulkimport.ImportKind;
+import com.example.springboot.task.bulkimport.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Bulk import of one uploaded file. The checkpoint is the byte offset and line after the last imported chunk,
+ * it is written in the transaction of the chunk, so an interrupted import resumes without duplicates.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportKind kind;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status;
+
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    @Column(name = "checkpoint_offset", nullable = false)
+    private long checkpointOffset;
+
+    @Column(name = "checkpoint_line", nullable = false)
+    private long checkpointLine;
+
+    @Column(nullable = false)
+    private long imported;
+
+    @Column(nullable = false)
+    private long rejected;
+
+    /**
+     * line numbers and reasons of the first rejected records, one per line
+     */
+    private String rejections;
+
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    @PreUpdate
+    private void touch() {
+        updatedAt = LocalDateTime.now(ZoneOffset.UTC);
+        if (createdAt == null) {
+            createdAt = updatedAt;
+        }
+    }
+}
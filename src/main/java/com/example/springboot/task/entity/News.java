@@ -6,8 +6,10 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -15,10 +17,14 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 
 
@@ -45,7 +51,31 @@ public class News {
     @Size(max = 5000)
     private String text;
 
-    @OneToMany(mappedBy = "news", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    @Version
+    private Long version;
+
+    /**
+     * time of the last change in UTC, the Last-Modified of the resource
+     */
+    @Column(name = "last_modified", nullable = false)
+    private LocalDateTime lastModified;
+
+    /**
+     * maintained by statements of {@link com.example.springboot.task.repository.NewsRepository} together with the comments,
+     * never written through the entity so that an update of the news does not overwrite a concurrent change
+     */
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private int commentCount;
+
+    /**
+     * date of the most recent comment, null if the news has no comments
+     */
+    @Column(name = "last_comment_at", insertable = false, updatable = false)
+    private LocalDateTime lastCommentAt;
+
+    @OneToMany(mappedBy = "news", fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JsonManagedReference
     private List<Comment> commentList;
 
@@ -56,6 +86,12 @@ public class News {
         this.text = text;
     }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = LocalDateTime.now(ZoneOffset.UTC);
+    }
+
     @Override
     public String toString() {
         return "News{" +
@@ -63,7 +99,6 @@ public class News {
                 ", date=" + date +
                 ", title='" + title + '\'' +
                 ", text='" + text + '\'' +
-                ", commentList=" + commentList +
                 '}';
     }
 }
@@ -4,4 +4,21 @@ public class ExceptionMessage {
 
     public static final String NEWS_NOT_FOUND = "News not found with id = ";
     public static final String COMMENT_NOT_FOUND = "Comment not found with id = ";
+    public static final String INVALID_CURSOR = "Invalid cursor = ";
+    public static final String INVALID_SEARCH_QUERY = "Invalid search query = ";
+    public static final String INVALID_SORT = "Unsupported sort = ";
+    public static final String INVALID_TRENDING_WINDOW = "Unsupported trending window = ";
+    public static final String INVALID_EXPORT_FORMAT = "Unsupported export format = ";
+    public static final String VERSION_CONFLICT = "Outdated version, reload and retry, id = ";
+    public static final String INVALID_COMMENT = "Invalid comment: ";
+    public static final String WRITE_BEHIND_QUEUE_FULL = "Comments are not accepted, queue is full, capacity = ";
+    public static final String WRITE_BEHIND_UNAVAILABLE = "Comments are not accepted, the journal could not be written in ";
+    public static final String RATE_LIMIT_EXCEEDED = "Too many writes, exceeded the rate limit of the ";
+    public static final String SERVER_OVERLOADED = "Server is overloaded, writes are shed";
+    public static final String INVALID_IMPORT_KIND = "Unsupported import kind = ";
+    public static final String INVALID_IMPORT_FORMAT = "Unsupported import format = ";
+    public static final String IMPORT_JOB_NOT_FOUND = "Import not found with id = ";
+    public static final String IMPORT_NOT_RESUMABLE = "Only a failed import can be resumed, status = ";
+    public static final String IMPORT_TOO_LARGE = "Import file exceeds the limit of ";
+    public static final String BATCH_TOO_LARGE = "Too many items in batch, the limit is ";
 }
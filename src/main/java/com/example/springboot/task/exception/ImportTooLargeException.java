@@ -0,0 +1,15 @@
+package com.example.springboot.task.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE, reason = "import file is too large")
+public class ImportTooLargeException extends RuntimeException {
+
+    public ImportTooLargeException(String message) {
+        super(message);
+    }
+
+    public ImportTooLargeException() {
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.springboot.task.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "invalid comment")
+public class InvalidCommentException extends RuntimeException {
+
+    public InvalidCommentException(String message) {
+        super(message);
+    }
+
+    public InvalidCommentException() {
+    }
+}
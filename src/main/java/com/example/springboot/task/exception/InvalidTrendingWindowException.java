@@ -0,0 +1,15 @@
+package com.example.springboot.task.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "unsupported window")
+public class InvalidTrendingWindowException extends RuntimeException {
+
+    public InvalidTrendingWindowException(String message) {
+        super(message);
+    }
+
+    public InvalidTrendingWindowException() {
+    }
+}
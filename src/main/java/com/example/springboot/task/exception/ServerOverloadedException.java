@@ -0,0 +1,24 @@
+package com.example.springboot.task.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A ResponseStatusException rather than a @ResponseStatus one, as the response carries Retry-After
+ */
+public class ServerOverloadedException extends ResponseStatusException {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    public ServerOverloadedException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return headers;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.springboot.task.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "comment journal could not be written")
+public class WriteBehindUnavailableException extends RuntimeException {
+
+    public WriteBehindUnavailableException(String message) {
+        super(message);
+    }
+
+    public WriteBehindUnavailableException() {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springboot.task.export;
+
+import com.example.springboot.task.exception.InvalidExportFormatException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_EXPORT_FORMAT;
+
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    /**
+     * Find format by the value of the "format" parameter
+     *
+     * @param name "ndjson" or "csv", case insensitive
+     * @return export format
+     * @throws InvalidExportFormatException if the format is not supported
+     */
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new InvalidExportFormatException(INVALID_EXPORT_FORMAT + name);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.springboot.task.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes rows one by one to the response body, nothing but the current row is kept in memory.
+ * The output is flushed every {@code flushRows} rows, so the client receives data while the export goes on
+ * and a slow client blocks the writer, which in turn stops reading further rows from the database cursor.
+ *
+ * @param <T> type of the exported rows
+ */
+public class ExportWriter<T> implements Closeable {
+
+    private static final char CSV_SEPARATOR = ',';
+
+    private static final char CSV_QUOTE = '"';
+
+    private final ExportFormat format;
+
+    private final Writer writer;
+
+    private final JsonGenerator generator;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Function<T, Object>> columns;
+
+    private final int flushRows;
+
+    private long rows;
+
+    /**
+     * @param format       format of the output
+     * @param out          body of the response
+     * @param objectMapper writes NDJSON rows
+     * @param columns      header and value of every CSV column, in order
+     * @param flushRows    number of rows between flushes, must be greater than 0.
+     */
+    public ExportWriter(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                        LinkedHashMap<String, Function<T, Object>> columns, int flushRows) throws IOException {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.columns = columns;
+        this.flushRows = flushRows;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .setRootValueSeparator(null);
+        if (format == ExportFormat.CSV) {
+            writeCsvRow(columns.keySet());
+        }
+    }
+
+    /**
+     * Write one row
+     *
+     * @param row exported object
+     * @throws UncheckedIOException if the client has gone away
+     */
+    public void write(T row) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                objectMapper.writeValue(generator, row);
+                generator.flush();
+                writer.write('\n');
+            } else {
+                writeCsvRow(columns.values().stream().map(column -> column.apply(row))::iterator);
+            }
+            if (++rows % flushRows == 0) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return number of rows written so far
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+        writer.flush();
+    }
+
+    private void writeCsvRow(Iterable<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                writer.write(CSV_SEPARATOR);
+            }
+            first = false;
+            if (value != null) {
+                writeCsvValue(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quote the value as RFC 4180 requires when it contains a separator, a quote or a line break
+     */
+    private void writeCsvValue(String value) throws IOException {
+        if (value.indexOf(CSV_SEPARATOR) < 0 && value.indexOf(CSV_QUOTE) < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write(CSV_QUOTE);
+        writer.write(value.replace("\"", "\"\""));
+        writer.write(CSV_QUOTE);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.springboot.task.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Builds streaming export responses. The body is written by an MVC async thread after the handler has returned,
+ * the source opens its own read-only transaction there and pushes rows straight into the {@link ExportWriter}.
+ */
+@Component
+public class Exporter {
+
+    private final ObjectMapper objectMapper;
+
+    private final int flushRows;
+
+    @Autowired
+    public Exporter(ObjectMapper objectMapper, @Value("${app.export.flush-rows:500}") int flushRows) {
+        this.objectMapper = objectMapper;
+        this.flushRows = flushRows;
+    }
+
+    /**
+     * Export rows as an attachment
+     *
+     * @param fileName name of the attachment without extension
+     * @param format   format of the body
+     * @param columns  header and value of every CSV column, in order
+     * @param source   passes every exported row to the given consumer
+     * @return response with the body written incrementally
+     */
+    public <T> ResponseEntity<StreamingResponseBody> export(String fileName, ExportFormat format,
+                                                            LinkedHashMap<String, Function<T, Object>> columns,
+                                                            Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (ExportWriter<T> writer = new ExportWriter<>(format, out, objectMapper, columns, flushRows)) {
+                source.accept(writer::write);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName + "." + format.getExtension()).build().toString())
+                .body(body);
+    }
+}
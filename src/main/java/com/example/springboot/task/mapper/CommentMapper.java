@@ -3,6 +3,7 @@ package com.example.springboot.task.mapper;
 import com.example.springboot.task.dto.CommentDto;
 import com.example.springboot.task.entity.Comment;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper(componentModel = "spring")
@@ -19,11 +20,14 @@ public interface CommentMapper {
     CommentDto entityToDto(Comment comment);
 
     /**
-     * converting object CommentsDto to object Comments
+     * converting object CommentsDto to object Comments, the version and the time of the change are managed by JPA
      *
      * @param commentDto convertible object
      * @return mapped object
      */
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
+    @Mapping(target = "news", ignore = true)
     Comment dtoToEntity(CommentDto commentDto);
 
 }
@@ -0,0 +1,20 @@
+package com.example.springboot.task.mapper;
+
+import com.example.springboot.task.dto.ImportJobDto;
+import com.example.springboot.task.entity.ImportJob;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ImportJobMapper {
+
+    /**
+     * converting object ImportJob to object ImportJobDto, the checkpoint is the progress of the import
+     *
+     * @param importJob convertible object
+     * @return mapped object
+     */
+    @Mapping(target = "processedBytes", source = "checkpointOffset")
+    @Mapping(target = "processedLines", source = "checkpointLine")
+    ImportJobDto entityToDto(ImportJob importJob);
+}
@@ -1,17 +1,21 @@
 package com.example.springboot.task.mapper;
 
 import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.dto.NewsSearchResultDto;
 import com.example.springboot.task.entity.News;
+import com.example.springboot.task.repository.projection.NewsSearchHit;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = CommentMapper.class)
 public interface NewsMapper {
     NewsMapper INSTANCE = Mappers.getMapper(NewsMapper.class);
 
     /**
-     * converting object News to object NewsDto
+     * converting object News to object NewsDto, loads the comments of the news
      *
      * @param news convertible object
      * @return mapped object
@@ -19,10 +23,47 @@ public interface NewsMapper {
     NewsDto entityToDto(News news);
 
     /**
-     * converting object NewsDto to object News
+     * converting object News to object NewsDto without touching the comments
+     *
+     * @param news convertible object
+     * @return mapped object whose commentList is null, the comments are not loaded
+     */
+    @Mapping(target = "commentList", ignore = true)
+    NewsDto entityToSummaryDto(News news);
+
+    /**
+     * converting object NewsDto to object News, comments are managed only through their own resource,
+     * the version and the time of the change are managed by JPA, the comment aggregates by the comment statements
      *
      * @param newsDto convertible object
      * @return mapped object
      */
+    @Mapping(target = "commentList", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "lastCommentAt", ignore = true)
     News dtoToEntity(NewsDto newsDto);
+
+    /**
+     * copy the editable fields of object NewsDto onto a loaded object News
+     *
+     * @param newsDto source of the changes
+     * @param news    managed object to change
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "commentList", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "lastCommentAt", ignore = true)
+    void updateEntity(NewsDto newsDto, @MappingTarget News news);
+
+    /**
+     * converting row of the full-text search to object NewsSearchResultDto
+     *
+     * @param hit convertible object
+     * @return mapped object
+     */
+    NewsSearchResultDto hitToDto(NewsSearchHit hit);
 }
@@ -0,0 +1,111 @@
+package com.example.springboot.task.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.springboot.task.util.UtilConstants.SERVICE_METHOD_MDC_KEY;
+
+/**
+ * Times every statement executed through the data source, Hibernate and JdbcTemplate alike, and logs the ones
+ * running longer than the threshold to the sql.slow logger, with the service method which issued them
+ * (see ServiceMetricsAspect) and without their parameter values. Slow statements are also counted
+ * as the jdbc.statements.slow counter tagged with the service method.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger("sql.slow");
+
+    private static final String METRIC_NAME = "jdbc.statements.slow";
+    private static final String EXECUTE_PREFIX = "execute";
+    private static final String UNKNOWN_SERVICE = "none";
+    private static final String BATCH = "<batch>";
+
+    private final long thresholdNanos;
+
+    private final MeterRegistry meterRegistry;
+
+    public SlowQueryDataSource(DataSource targetDataSource, Duration threshold, MeterRegistry meterRegistry) {
+        super(targetDataSource);
+        this.thresholdNanos = threshold.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connectionProxy(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connectionProxy(super.getConnection(username, password));
+    }
+
+    /**
+     * Statements created by the connection are timed, for prepared ones the SQL is known from the start
+     */
+    private Connection connectionProxy(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return statementProxy((Statement) result, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Object statementProxy(Statement statement, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (!method.getName().startsWith(EXECUTE_PREFIX)) {
+                return invoke(statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= thresholdNanos) {
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : BATCH;
+                    slowStatement(sql, elapsed);
+                }
+            }
+        });
+    }
+
+    private void slowStatement(String sql, long elapsedNanos) {
+        String serviceMethod = MDC.get(SERVICE_METHOD_MDC_KEY);
+        if (serviceMethod == null) {
+            serviceMethod = UNKNOWN_SERVICE;
+        }
+        Counter.builder(METRIC_NAME)
+                .description("SQL statements running longer than app.metrics.slow-query-threshold")
+                .tag("service", serviceMethod)
+                .register(meterRegistry)
+                .increment();
+        log.warn("elapsedMs={} service={} sql={}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), serviceMethod, sql);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.springboot.task.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the data source bean into a {@link SlowQueryDataSource}, unless the threshold is zero.
+ * The pools behind it keep their own beans, so their metrics and health are unaffected.
+ */
+public class SlowQueryLogPostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final Duration threshold;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SlowQueryLogPostProcessor(Duration threshold, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource && !threshold.isZero() && !threshold.isNegative()) {
+            return new SlowQueryDataSource((DataSource) bean, threshold, meterRegistry.getObject());
+        }
+        return bean;
+    }
+}
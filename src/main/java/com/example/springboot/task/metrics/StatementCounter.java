@@ -0,0 +1,30 @@
+package com.example.springboot.task.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements prepared by Hibernate on the current thread, the count is reset
+ * at the beginning of every request by {@link StatementMetricsInterceptor}
+ * <p>
+ * Only the statements of the request thread are counted: work handed to another thread, such as an executor,
+ * the write-behind queue or an async request completed on a container thread, counts on that thread and is
+ * not attributed to the request. Statements of R2DBC are not prepared by Hibernate and never counted.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public int count() {
+        return COUNT.get()[0];
+    }
+}
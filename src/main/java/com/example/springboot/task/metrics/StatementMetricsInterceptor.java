@@ -0,0 +1,63 @@
+package com.example.springboot.task.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records the number of SQL statements of every request as the http.server.requests.statements summary,
+ * tagged like http.server.requests, and warns about requests above the threshold, the usual sign of N+1 queries
+ * <p>
+ * The count is kept per thread by {@link StatementCounter}, so async requests are not recorded: their handler and
+ * their completion run on different threads and either count alone would be partial
+ */
+public class StatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementMetricsInterceptor.class);
+
+    private static final String METRIC_NAME = "http.server.requests.statements";
+
+    private final StatementCounter statementCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int warnThreshold;
+
+    public StatementMetricsInterceptor(StatementCounter statementCounter, MeterRegistry meterRegistry, int warnThreshold) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return;
+        }
+        int statements = statementCounter.count();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements prepared while handling a request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+        if (statements > warnThreshold) {
+            log.warn("{} {} prepared {} SQL statements", request.getMethod(), uri, statements);
+        }
+    }
+}
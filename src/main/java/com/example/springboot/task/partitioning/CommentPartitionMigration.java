@@ -0,0 +1,160 @@
+package com.example.springboot.task.partitioning;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Copies the comments of a table which was too large to be partitioned by its migration (V1_11__comments_partitioned.sql)
+ * into comments_partitioned, one batch of ids per transaction, then replaces comments with the partitioned table.
+ * <p>
+ * Rows written while the copy runs reach the partitioned table through the trigger comments_sync_partitioned,
+ * the batches only have to cover the ids up to the largest one at the start of the copy. The last copied id is kept in
+ * comments_partition_copy, a restarted copy goes on from there.
+ */
+public class CommentPartitionMigration implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommentPartitionMigration.class);
+
+    static final String PENDING = "select to_regclass('comments_partitioned') is not null";
+
+    static final String CHECKPOINT = "select last_id, until_id from comments_partition_copy for update";
+
+    static final String INIT_CHECKPOINT = "update comments_partition_copy set until_id = (select coalesce(max(id), 0) from comments)";
+
+    static final String SAVE_CHECKPOINT = "update comments_partition_copy set last_id = ?";
+
+    static final String CREATE_BATCH_PARTITIONS = "select create_comment_partition(month) from (" +
+            "select distinct date_trunc('month', date)::date as month from (" +
+            "select date from comments where id > ? and id <= ? order by id limit ?) batch) months";
+
+    /**
+     * FOR SHARE keeps the rows of the batch from changing until they are copied, a concurrent change would otherwise
+     * be applied by the trigger before the copy and overwritten by the old row
+     */
+    static final String COPY_BATCH = "with batch as (" +
+            "select id, date, text, user_name, news_id, version, last_modified from comments " +
+            "where id > ? and id <= ? order by id limit ? for share), " +
+            "copied as (insert into comments_partitioned (id, date, text, user_name, news_id, version, last_modified) " +
+            "select id, date, text, user_name, news_id, version, last_modified from batch on conflict do nothing) " +
+            "select max(id) as max_id, count(*) as copied from batch";
+
+    static final String SWITCH = "select switch_to_partitioned_comments()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final Duration batchPause;
+
+    private final Duration lockTimeout;
+
+    private final Counter copied;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    public CommentPartitionMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int batchSize,
+                                     Duration batchPause, Duration lockTimeout, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.lockTimeout = lockTimeout;
+        this.copied = meterRegistry.counter("comments.partition.copied");
+    }
+
+    /**
+     * Copy the next batch of comments
+     *
+     * @return false when every comment up to the largest id at the start of the copy has been copied
+     */
+    boolean copyBatch() {
+        Boolean more = transactionTemplate.execute(status -> {
+            Map<String, Object> checkpoint = jdbcTemplate.queryForMap(CHECKPOINT);
+            if (checkpoint.get("until_id") == null) {
+                jdbcTemplate.update(INIT_CHECKPOINT);
+                checkpoint = jdbcTemplate.queryForMap(CHECKPOINT);
+            }
+            long lastId = ((Number) checkpoint.get("last_id")).longValue();
+            long untilId = ((Number) checkpoint.get("until_id")).longValue();
+            jdbcTemplate.queryForList(CREATE_BATCH_PARTITIONS, lastId, untilId, batchSize);
+            Map<String, Object> batch = jdbcTemplate.queryForMap(COPY_BATCH, lastId, untilId, batchSize);
+            if (batch.get("max_id") == null) {
+                return false;
+            }
+            jdbcTemplate.update(SAVE_CHECKPOINT, batch.get("max_id"));
+            copied.increment(((Number) batch.get("copied")).doubleValue());
+            return true;
+        });
+        return Boolean.TRUE.equals(more);
+    }
+
+    /**
+     * Replace comments with the partitioned table, waiting for the lock of comments at most lockTimeout
+     */
+    void switchTables() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("set local lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+            jdbcTemplate.queryForObject(SWITCH, Object.class);
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::migrate, "comment-partition-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void migrate() {
+        try {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(PENDING, Boolean.class))) {
+                return;
+            }
+            LOGGER.info("Copying comments into the partitioned table");
+            while (running && copyBatch()) {
+                Thread.sleep(batchPause.toMillis());
+            }
+            while (running) {
+                try {
+                    switchTables();
+                    LOGGER.info("Comments are partitioned, the former table is kept as comments_legacy");
+                    return;
+                } catch (DataAccessException e) {
+                    LOGGER.warn("Switch to the partitioned comments failed, it is tried again", e);
+                    Thread.sleep(lockTimeout.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (DataAccessException e) {
+            LOGGER.warn("Copy of comments into the partitioned table stopped, it goes on from its checkpoint on the next start", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.springboot.task.partitioning;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the monthly partitions of comments ahead of time with create_comment_partitions (V1_11__comments_partitioned.sql),
+ * so new comments do not end up in the default partition
+ */
+public class CommentPartitions implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommentPartitions.class);
+
+    static final String CREATE_PARTITIONS = "select create_comment_partitions(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int monthsAhead;
+
+    private final Duration checkInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+
+    public CommentPartitions(JdbcTemplate jdbcTemplate, int monthsAhead, Duration checkInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Create the partitions of the current month and of the coming months which do not exist yet
+     *
+     * @return number of partitions created
+     */
+    public int createPartitions() {
+        Integer created = jdbcTemplate.queryForObject(CREATE_PARTITIONS, Integer.class, monthsAhead);
+        if (created != null && created > 0) {
+            LOGGER.info("Created {} comment partitions", created);
+        }
+        return created == null ? 0 : created;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "comment-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                createPartitions();
+            } catch (DataAccessException e) {
+                LOGGER.warn("Comment partitions could not be created", e);
+            }
+        }, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
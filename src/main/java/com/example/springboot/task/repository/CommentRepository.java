@@ -1,21 +1,150 @@
 package com.example.springboot.task.repository;
 
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.UserCommentDto;
 import com.example.springboot.task.entity.Comment;
+import com.example.springboot.task.repository.projection.CommentsVersionView;
+import com.example.springboot.task.repository.projection.NewsComment;
+import com.example.springboot.task.repository.projection.UpdatedCommentView;
+import com.example.springboot.task.repository.projection.VersionView;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.example.springboot.task.util.UtilConstants.EXPORT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByNewsId(Long newsId);
+    /**
+     * Reads of comments are built as DTOs directly, see {@link NewsRepository#NEWS_SUMMARY}
+     */
+    String COMMENT = "select new com.example.springboot.task.dto.CommentDto(c.id, c.date, c.text, c.userName, c.version) " +
+            "from Comment c ";
+
+    /**
+     * Update of the comment locked by a preceding "old" query, returns its previous date and its new version
+     */
+    String UPDATE_COMMENT = "update comments c set date = :date, text = :text, user_name = :userName, " +
+            "version = c.version + 1, last_modified = :lastModified from old where c.id = old.id and c.date = old.date " +
+            "returning old.date as \"previousDate\", c.version as version";
+
+    @Query(COMMENT + "where c.news.id = :newsId")
+    List<CommentDto> findByNewsId(@Param("newsId") Long newsId);
+
+    @Query(COMMENT + "where c.news.id = :newsId")
+    List<CommentDto> findByNewsId(@Param("newsId") Long newsId, Pageable pageable);
+
+    /**
+     * Merges the first rows of the news from the index of every monthly partition of comments
+     */
+    @Query(COMMENT + "where c.news.id = :newsId order by c.date desc, c.id desc")
+    List<CommentDto> findByNewsIdOrderByDateDescIdDesc(@Param("newsId") Long newsId, Pageable pageable);
+
+    /**
+     * Seeks on comments_news_id_date_id_idx, see {@link NewsRepository#findAllAfter},
+     * the date bound skips the partitions of the months after the cursor
+     */
+    @Query(COMMENT + "where c.news.id = :newsId and c.date <= :date and (c.date < :date or c.id < :id) " +
+            "order by c.date desc, c.id desc")
+    List<CommentDto> findByNewsIdAfter(@Param("newsId") Long newsId, @Param("date") LocalDateTime date,
+                                       @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Comments of several news with the news they belong to, for grouping them by news
+     */
+    @Query("select new com.example.springboot.task.repository.projection.NewsComment(c.news.id, c.id, c.date, c.text, " +
+            "c.userName, c.version) from Comment c where c.news.id in :newsIds order by c.date desc, c.id desc")
+    List<NewsComment> findByNewsIdInOrderByDateDescIdDesc(@Param("newsIds") Collection<Long> newsIds);
+
+    /**
+     * Comments of the user across all news read in order from comments_user_name_date_id_idx,
+     * the news is only referenced by its key and not loaded
+     */
+    @Query("select new com.example.springboot.task.dto.UserCommentDto(c.id, c.news.id, c.date, c.text, c.userName, c.version) " +
+            "from Comment c where c.userName = :userName order by c.date desc, c.id desc")
+    List<UserCommentDto> findByUserName(@Param("userName") String userName, Pageable pageable);
+
+    /**
+     * Seeks on comments_user_name_date_id_idx, see {@link #findByNewsIdAfter}
+     */
+    @Query("select new com.example.springboot.task.dto.UserCommentDto(c.id, c.news.id, c.date, c.text, c.userName, c.version) " +
+            "from Comment c where c.userName = :userName and c.date <= :date and (c.date < :date or c.id < :id) " +
+            "order by c.date desc, c.id desc")
+    List<UserCommentDto> findByUserNameAfter(@Param("userName") String userName, @Param("date") LocalDateTime date,
+                                             @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Comments of the news for the export, see {@link NewsRepository#streamAll()}
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select new com.example.springboot.task.dto.CommentDto(c.id, c.date, c.text, c.userName) from Comment c " +
+            "where c.news.id = :newsId order by c.date desc, c.id desc")
+    Stream<CommentDto> streamByNewsId(@Param("newsId") Long newsId);
+
+    /**
+     * Not bounded by date: a request by id carries only the news and the comment id, and the date is set by the client
+     * independently of the id, so the primary key (id, date) of every monthly partition is probed once
+     */
+    @Query(COMMENT + "where c.news.id = :newsId and c.id = :id")
+    Optional<CommentDto> findByNewsIdAndId(@Param("newsId") Long newsId, @Param("id") Long id);
+
+    /**
+     * Not bounded by date for the same reason as {@link #findByNewsIdAndId}
+     */
+    @Query("select c.version as version, c.lastModified as lastModified from Comment c " +
+            "where c.news.id = :newsId and c.id = :id")
+    Optional<VersionView> findVersionByNewsIdAndId(@Param("newsId") Long newsId, @Param("id") Long id);
+
+    /**
+     * Read from comments_news_id_last_modified_idx only. Not bounded by date: the count covers every comment
+     * of the news whatever its month, each partition contributes an index-only scan of the news
+     */
+    @Query("select count(c) as count, max(c.lastModified) as lastModified from Comment c where c.news.id = :newsId")
+    CommentsVersionView findVersionByNewsId(@Param("newsId") Long newsId);
 
-    List<Comment> findByNewsId(Long newsId, Pageable pageable);
+    /**
+     * Bulk updates bypass JPA callbacks and @Version, both columns are maintained by the statement itself.
+     * The row is locked before it is updated so that the date it had is returned along with the new version,
+     * nothing is returned when the comment does not exist.
+     * Not bounded by date for the same reason as {@link #findByNewsIdAndId}, the previous date is only known once
+     * the row has been found.
+     */
+    @Query(nativeQuery = true, value = "with old as (select id, date from comments " +
+            "where news_id = :newsId and id = :id for update) " + UPDATE_COMMENT)
+    Optional<UpdatedCommentView> updateByNewsIdAndId(@Param("newsId") Long newsId, @Param("id") Long id,
+                                                     @Param("date") LocalDateTime date, @Param("text") String text,
+                                                     @Param("userName") String userName,
+                                                     @Param("lastModified") LocalDateTime lastModified);
 
-    Optional<Comment> findByNewsIdAndId(Long newsId, Long id);
+    /**
+     * Optimistic variant of {@link #updateByNewsIdAndId}, updates nothing when the comment has changed since the given version
+     */
+    @Query(nativeQuery = true, value = "with old as (select id, date from comments " +
+            "where news_id = :newsId and id = :id and version = :version for update) " + UPDATE_COMMENT)
+    Optional<UpdatedCommentView> updateByNewsIdAndIdAndVersion(@Param("newsId") Long newsId, @Param("id") Long id,
+                                                               @Param("version") Long version,
+                                                               @Param("date") LocalDateTime date, @Param("text") String text,
+                                                               @Param("userName") String userName,
+                                                               @Param("lastModified") LocalDateTime lastModified);
 
-    void deleteByNewsIdAndId(Long newsId, Long id);
+    /**
+     * Not bounded by date for the same reason as {@link #findByNewsIdAndId}
+     *
+     * @return the date of the deleted comment, nothing when the comment does not exist
+     */
+    @Query(nativeQuery = true, value = "delete from comments where news_id = :newsId and id = :id returning date")
+    Optional<LocalDateTime> deleteByNewsIdAndId(@Param("newsId") Long newsId, @Param("id") Long id);
 }
@@ -0,0 +1,30 @@
+package com.example.springboot.task.repository;
+
+import com.example.springboot.task.bulkimport.ImportStatus;
+import com.example.springboot.task.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    List<ImportJob> findByStatusInOrderById(Collection<ImportStatus> statuses);
+
+    /**
+     * Move the checkpoint past a chunk, in the transaction which imported it
+     */
+    @Modifying
+    @Query("update ImportJob j set j.checkpointOffset = :offset, j.checkpointLine = :line, " +
+            "j.imported = j.imported + :imported, j.rejected = j.rejected + :rejected, j.rejections = :rejections, " +
+            "j.updatedAt = :now where j.id = :id")
+    int advance(@Param("id") Long id, @Param("offset") long offset, @Param("line") long line,
+                @Param("imported") long imported, @Param("rejected") long rejected,
+                @Param("rejections") String rejections, @Param("now") LocalDateTime now);
+}
@@ -1,12 +1,130 @@
 package com.example.springboot.task.repository;
 
+import com.example.springboot.task.dto.NewsDto;
 import com.example.springboot.task.entity.News;
+import com.example.springboot.task.repository.projection.NewsSearchHit;
+import com.example.springboot.task.repository.projection.VersionView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.example.springboot.task.util.UtilConstants.EXPORT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface NewsRepository extends JpaRepository<News, Long> {
 
+    /**
+     * Reads of news are built as DTOs directly: no entity is hydrated, put into the persistence context or mapped
+     */
+    String NEWS_SUMMARY = "select new com.example.springboot.task.dto.NewsDto(n.id, n.date, n.title, n.text, n.version, " +
+            "n.commentCount, n.lastCommentAt) from News n ";
+
+    String SEARCH_MATCHES = "select n.id, ts_rank(n.search_vector, websearch_to_tsquery('english', :query)) as rank " +
+            "from news n where n.search_vector @@ websearch_to_tsquery('english', :query)";
+
+    String SEARCH_HIT = "select n.id as id, n.date as date, n.title as title, hit.rank as rank, " +
+            "ts_headline('english', n.text, websearch_to_tsquery('english', :query), " +
+            "'StartSel=<b>, StopSel=</b>, MaxFragments=2, MaxWords=35, MinWords=15') as snippet ";
+
+    /**
+     * All news without their comments, see {@link #NEWS_SUMMARY}
+     */
+    @Query(NEWS_SUMMARY)
+    List<NewsDto> findAllSummaries();
+
+    @Query(NEWS_SUMMARY + "where n.id = :id")
+    Optional<NewsDto> findSummaryById(@Param("id") Long id);
+
+    @Query(NEWS_SUMMARY + "order by n.date desc, n.id desc")
+    List<NewsDto> findAllByOrderByDateDescIdDesc(Pageable pageable);
+
+    /**
+     * Most discussed news, read in order from news_comment_count_id_idx
+     */
+    @Query(NEWS_SUMMARY + "order by n.commentCount desc, n.id desc")
+    List<NewsDto> findAllByOrderByCommentCountDescIdDesc(Pageable pageable);
+
+    /**
+     * Recently active news, read in order from news_last_comment_at_id_idx, news without comments come last
+     */
+    @Query(NEWS_SUMMARY + "order by n.lastCommentAt desc nulls last, n.id desc")
+    List<NewsDto> findAllByRecentActivity(Pageable pageable);
+
+    /**
+     * The redundant "date <= :date" gives the planner an index range on news_date_id_idx,
+     * so the page is read by seeking to the cursor instead of skipping preceding rows.
+     */
+    @Query(NEWS_SUMMARY + "where n.date <= :date and (n.date < :date or n.id < :id) order by n.date desc, n.id desc")
+    List<NewsDto> findAllAfter(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * First page of the full-text search. Matches are found through the GIN index news_search_vector_idx,
+     * snippets are built only for the rows of the page after the limit has been applied.
+     */
+    @Query(nativeQuery = true, value = SEARCH_HIT +
+            "from (" + SEARCH_MATCHES + " order by rank desc, n.id desc limit :limit) hit " +
+            "join news n on n.id = hit.id order by hit.rank desc, hit.id desc")
+    List<NewsSearchHit> search(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Following page of the full-text search, continues after the (rank, id) of the last row of the previous page
+     */
+    @Query(nativeQuery = true, value = SEARCH_HIT +
+            "from (select m.id, m.rank from (" + SEARCH_MATCHES + ") m " +
+            "where m.rank < cast(:rank as real) or (m.rank = cast(:rank as real) and m.id < :id) " +
+            "order by m.rank desc, m.id desc limit :limit) hit " +
+            "join news n on n.id = hit.id order by hit.rank desc, hit.id desc")
+    List<NewsSearchHit> searchAfter(@Param("query") String query, @Param("rank") Float rank, @Param("id") Long id,
+                                    @Param("limit") int limit);
+
+    /**
+     * All news for the export, read through a server-side cursor {@link com.example.springboot.task.util.UtilConstants#EXPORT_FETCH_SIZE}
+     * rows at a time. Rows are built as DTOs directly, so the persistence context does not grow during the export.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select new com.example.springboot.task.dto.NewsDto(n.id, n.date, n.title, n.text) from News n " +
+            "order by n.date desc, n.id desc")
+    Stream<NewsDto> streamAll();
+
+    @Query("select n.version as version, n.lastModified as lastModified from News n where n.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
+    /**
+     * Count comments added to the news. last_comment_at only moves forward, so concurrent inserts
+     * serialized on the row lock of the news cannot lose the most recent date.
+     */
+    @Modifying
+    @Query("update News n set n.commentCount = n.commentCount + :count, " +
+            "n.lastCommentAt = case when n.lastCommentAt is null or n.lastCommentAt < :date then :date " +
+            "else n.lastCommentAt end where n.id = :id")
+    int addComments(@Param("id") Long id, @Param("count") int count, @Param("date") LocalDateTime date);
+
+    /**
+     * Count comments removed from the news, last_comment_at is taken again from comments_news_id_date_id_idx
+     */
+    @Modifying
+    @Query("update News n set n.commentCount = n.commentCount - :count, " +
+            "n.lastCommentAt = (select max(c.date) from Comment c where c.news.id = :id) where n.id = :id")
+    int removeComments(@Param("id") Long id, @Param("count") int count);
 
+    /**
+     * Comments are removed by ON DELETE CASCADE of comments_news_id_fkey, nothing is loaded into the persistence context
+     */
+    @Modifying
+    @Query("delete from News n where n.id = :id")
+    int deleteNewsById(@Param("id") Long id);
 
 }
@@ -0,0 +1,13 @@
+package com.example.springboot.task.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of the comment list of a news: a creation or an update moves the latest change, a deletion lowers the count
+ */
+public interface CommentsVersionView {
+
+    Long getCount();
+
+    LocalDateTime getLastModified();
+}
@@ -0,0 +1,23 @@
+package com.example.springboot.task.repository.projection;
+
+import com.example.springboot.task.dto.CommentDto;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Comment read together with the id of its news, built by a constructor expression so that the comments of many news
+ * can be grouped without loading the entities
+ */
+@Getter
+public class NewsComment {
+
+    private final Long newsId;
+
+    private final CommentDto comment;
+
+    public NewsComment(Long newsId, Long id, LocalDateTime date, String text, String userName, Long version) {
+        this.newsId = newsId;
+        this.comment = new CommentDto(id, date, text, userName, version);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.springboot.task.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the full-text search over news, the snippet is the text fragment with the matched words highlighted
+ */
+public interface NewsSearchHit {
+
+    Long getId();
+
+    LocalDateTime getDate();
+
+    String getTitle();
+
+    String getSnippet();
+
+    Float getRank();
+}
@@ -0,0 +1,13 @@
+package com.example.springboot.task.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Comment changed by an update: the date it had before the update and the version the update has given it
+ */
+public interface UpdatedCommentView {
+
+    LocalDateTime getPreviousDate();
+
+    Long getVersion();
+}
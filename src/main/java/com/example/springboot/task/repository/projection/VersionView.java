@@ -0,0 +1,13 @@
+package com.example.springboot.task.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of a single row, read without loading the row itself
+ */
+public interface VersionView {
+
+    Long getVersion();
+
+    LocalDateTime getLastModified();
+}
@@ -0,0 +1,49 @@
+package com.example.springboot.task.repository.reactive;
+
+import com.example.springboot.task.dto.CommentDto;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking reads of comments over R2DBC, see {@link NewsReactiveRepository}
+ */
+@Repository
+public class CommentReactiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public CommentReactiveRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Comments of the news, the most recent first, read along comments_news_id_date_id_idx
+     */
+    public Flux<CommentDto> findByNewsId(Long newsId) {
+        return databaseClient.sql("select id, date, text, user_name from comments where news_id = :newsId " +
+                        "order by date desc, id desc")
+                .bind("newsId", newsId)
+                .map(CommentReactiveRepository::toDto)
+                .all();
+    }
+
+    public Mono<CommentDto> findByNewsIdAndId(Long newsId, Long id) {
+        return databaseClient.sql("select id, date, text, user_name from comments where news_id = :newsId and id = :id")
+                .bind("newsId", newsId)
+                .bind("id", id)
+                .map(CommentReactiveRepository::toDto)
+                .one();
+    }
+
+    private static CommentDto toDto(Row row) {
+        return new CommentDto(row.get("id", Long.class), row.get("date", LocalDateTime.class),
+                row.get("text", String.class), row.get("user_name", String.class));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.springboot.task.repository.reactive;
+
+import com.example.springboot.task.dto.NewsDto;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking reads of news over R2DBC, rows are mapped straight to DTOs.
+ * Writes stay on the JPA {@link com.example.springboot.task.repository.NewsRepository}.
+ */
+@Repository
+public class NewsReactiveRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public NewsReactiveRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * All news, the most recent first, emitted while the rows arrive
+     */
+    public Flux<NewsDto> findAll() {
+        return databaseClient.sql("select id, date, title, text, comment_count, last_comment_at from news order by date desc, id desc")
+                .map(NewsReactiveRepository::toDto)
+                .all();
+    }
+
+    public Mono<NewsDto> findById(Long id) {
+        return databaseClient.sql("select id, date, title, text, comment_count, last_comment_at from news where id = :id")
+                .bind("id", id)
+                .map(NewsReactiveRepository::toDto)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("select id from news where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("id", Long.class))
+                .first()
+                .hasElement();
+    }
+
+    private static NewsDto toDto(Row row) {
+        return NewsDto.builder()
+                .id(row.get("id", Long.class))
+                .date(row.get("date", LocalDateTime.class))
+                .title(row.get("title", String.class))
+                .text(row.get("text", String.class))
+                .commentCount(row.get("comment_count", Integer.class))
+                .lastCommentAt(row.get("last_comment_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -1,20 +1,39 @@
 package com.example.springboot.task.service;
 
+import com.example.springboot.task.dto.BatchResultDto;
 import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
+import com.example.springboot.task.dto.UserCommentDto;
+import com.example.springboot.task.util.ResourceVersion;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CommentService {
 
     CommentDto create(Long newsId, CommentDto commentDto);
 
+    BatchResultDto createAll(Long newsId, List<CommentDto> commentDtoList);
+
     List<CommentDto> findAll(Long newsId);
 
     List<CommentDto> findAll(Long newsId, int page, int size);
 
+    CursorPageDto<CommentDto> findAll(Long newsId, String after, int size);
+
+    CursorPageDto<UserCommentDto> findAllByUserName(String userName, String after, int size);
+
     Optional<CommentDto> findById(Long newsId, Long id);
 
+    ResourceVersion findVersion(Long newsId);
+
+    Optional<ResourceVersion> findVersion(Long newsId, Long id);
+
+    void exportAll(Long newsId, Consumer<CommentDto> consumer);
+
+    void checkNewsExists(Long newsId);
+
     CommentDto update(Long id, CommentDto commentDto);
 
     void delete(Long newsId, Long id);
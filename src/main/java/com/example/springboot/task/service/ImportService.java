@@ -0,0 +1,17 @@
+package com.example.springboot.task.service;
+
+import com.example.springboot.task.bulkimport.ImportFormat;
+import com.example.springboot.task.bulkimport.ImportKind;
+import com.example.springboot.task.dto.ImportJobDto;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+public interface ImportService {
+
+    ImportJobDto create(ImportKind kind, ImportFormat format, InputStream content);
+
+    Optional<ImportJobDto> findById(Long id);
+
+    ImportJobDto resume(Long id);
+}
@@ -1,22 +1,35 @@
 package com.example.springboot.task.service;
 
+import com.example.springboot.task.dto.CursorPageDto;
 import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.dto.NewsSearchResultDto;
+import com.example.springboot.task.dto.NewsSort;
+import com.example.springboot.task.util.ResourceVersion;
 import org.springframework.data.domain.Pageable;
 
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface NewsService {
 
     NewsDto create(NewsDto newsDto);
 
-    List<NewsDto> findAll();
+    List<NewsDto> findAll(boolean withComments);
 
-    List<NewsDto> findAll(Pageable pageable);
+    List<NewsDto> findAll(Pageable pageable, NewsSort sort, boolean withComments);
+
+    CursorPageDto<NewsDto> findAll(String after, int size, boolean withComments);
+
+    CursorPageDto<NewsSearchResultDto> search(String query, String after, int size);
 
     Optional<NewsDto> findById(Long id);
 
+    Optional<ResourceVersion> findVersion(Long id);
+
+    void exportAll(Consumer<NewsDto> consumer);
+
     NewsDto update(NewsDto newsDto);
 
     void delete(Long id);
@@ -0,0 +1,17 @@
+package com.example.springboot.task.service;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveNewsService {
+
+    Flux<NewsDto> findAll();
+
+    Mono<NewsDto> findById(Long id);
+
+    Flux<CommentDto> findComments(Long newsId);
+
+    Mono<CommentDto> findComment(Long newsId, Long id);
+}
@@ -1,27 +1,51 @@
 package com.example.springboot.task.service.impl;
 
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.datasource.ReadFromPrimary;
+import com.example.springboot.task.dto.BatchItemResultDto;
+import com.example.springboot.task.dto.BatchItemStatus;
+import com.example.springboot.task.dto.BatchResultDto;
 import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
+import com.example.springboot.task.dto.UserCommentDto;
 import com.example.springboot.task.entity.Comment;
 import com.example.springboot.task.entity.News;
 import com.example.springboot.task.exception.CommentNotFoundException;
 import com.example.springboot.task.exception.NewsNotFoundException;
+import com.example.springboot.task.exception.VersionConflictException;
 import com.example.springboot.task.mapper.CommentMapper;
 import com.example.springboot.task.repository.CommentRepository;
 import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.repository.projection.CommentsVersionView;
+import com.example.springboot.task.repository.projection.UpdatedCommentView;
 import com.example.springboot.task.service.CommentService;
-import org.hibernate.tool.schema.spi.CommandAcceptanceException;
+import com.example.springboot.task.trending.TrendingNews;
+import com.example.springboot.task.util.KeysetCursor;
+import com.example.springboot.task.util.ResourceVersion;
+import com.example.springboot.task.validator.CommentDtoValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.example.springboot.task.exception.ExceptionMessage.COMMENT_NOT_FOUND;
 import static com.example.springboot.task.exception.ExceptionMessage.NEWS_NOT_FOUND;
+import static com.example.springboot.task.exception.ExceptionMessage.VERSION_CONFLICT;
+import static com.example.springboot.task.util.CacheNames.COMMENTS;
+import static com.example.springboot.task.util.CacheNames.COMMENT_PAGES;
+import static com.example.springboot.task.util.CacheNames.COMMENT_VERSIONS;
 
 
 @Service
@@ -30,17 +54,29 @@ public class CommentServiceImpl implements CommentService {
     private final CommentRepository commentRepository;
     private final CommentMapper mapper;
     private final NewsRepository newsRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final CommentDtoValidator validator;
+
+    /**
+     * absent when app.trending.enabled=false
+     */
+    private final Optional<TrendingNews> trendingNews;
 
 
     @Autowired
-    public CommentServiceImpl(CommentRepository commentRepository, CommentMapper mapper, NewsRepository newsRepository) {
+    public CommentServiceImpl(CommentRepository commentRepository, CommentMapper mapper, NewsRepository newsRepository,
+                              CacheInvalidator cacheInvalidator, CommentDtoValidator validator,
+                              Optional<TrendingNews> trendingNews) {
         this.commentRepository = commentRepository;
         this.mapper = mapper;
         this.newsRepository = newsRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.validator = validator;
+        this.trendingNews = trendingNews;
     }
 
     /**
-     * Saving object comments
+     * Saving object comments, the comment count and the date of the last comment of the news are changed in the same transaction
      *
      * @param newsId     for check news
      * @param commentDto object comments to save
@@ -49,13 +85,59 @@ public class CommentServiceImpl implements CommentService {
     @Transactional
     @Override
     public CommentDto create(Long newsId, CommentDto commentDto) {
-        News news = newsRepository.findById(newsId).orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + newsId));
         Comment comment = mapper.dtoToEntity(commentDto);
-        comment.setNews(news);
+        comment.setNews(newsReference(newsId));
         Comment saveComment = commentRepository.save(comment);
+        newsRepository.addComments(newsId, 1, saveComment.getDate());
+        cacheInvalidator.commentChanged(newsId, null);
+        trendingNews.ifPresent(trending -> trending.commentAdded(newsId, saveComment.getDate()));
         return mapper.entityToDto(saveComment);
     }
 
+    /**
+     * Saving list of comments in one transaction, valid comments are inserted with JDBC batches
+     * and invalid ones are reported without failing the rest
+     *
+     * @param newsId         for check news
+     * @param commentDtoList objects comments to save, at most MAX_BATCH_SIZE, see BoundedListHttpMessageConverter
+     * @return result of every item in the order of the request
+     */
+    @Transactional
+    @Override
+    public BatchResultDto createAll(Long newsId, List<CommentDto> commentDtoList) {
+        News news = newsReference(newsId);
+        List<BatchItemResultDto> items = new ArrayList<>(commentDtoList.size());
+        List<BatchItemResultDto> createdItems = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (int index = 0; index < commentDtoList.size(); index++) {
+            CommentDto commentDto = commentDtoList.get(index);
+            List<String> errors = validator.validate(commentDto);
+            if (!errors.isEmpty()) {
+                items.add(new BatchItemResultDto(index, null, BatchItemStatus.REJECTED, errors));
+                continue;
+            }
+            Comment comment = mapper.dtoToEntity(commentDto);
+            comment.setId(null);
+            comment.setNews(news);
+            comments.add(comment);
+            BatchItemResultDto item = new BatchItemResultDto(index, null, BatchItemStatus.CREATED, null);
+            createdItems.add(item);
+            items.add(item);
+        }
+        List<Comment> savedComments = commentRepository.saveAll(comments);
+        for (int i = 0; i < savedComments.size(); i++) {
+            createdItems.get(i).setId(savedComments.get(i).getId());
+        }
+        if (!savedComments.isEmpty()) {
+            newsRepository.addComments(newsId, savedComments.size(),
+                    savedComments.stream().map(Comment::getDate).max(LocalDateTime::compareTo).get());
+            cacheInvalidator.commentChanged(newsId, null);
+            trendingNews.ifPresent(trending -> trending.commentsAdded(newsId,
+                    savedComments.stream().map(Comment::getDate).collect(Collectors.toList())));
+        }
+        return new BatchResultDto(createdItems.size(), items.size() - createdItems.size(), items);
+    }
+
     /**
      * Make a request to receive all comments
      *
@@ -65,9 +147,11 @@ public class CommentServiceImpl implements CommentService {
     @Transactional(readOnly = true)
     @Override
     public List<CommentDto> findAll(Long newsId) {
-        newsRepository.findById(newsId).orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + newsId));
-        List<Comment> commentList = commentRepository.findByNewsId(newsId);
-        return commentList.stream().map(mapper::entityToDto).collect(Collectors.toList());
+        List<CommentDto> commentList = commentRepository.findByNewsId(newsId);
+        if (commentList.isEmpty()) {
+            checkNewsExists(newsId);
+        }
+        return commentList;
     }
 
     /**
@@ -78,13 +162,62 @@ public class CommentServiceImpl implements CommentService {
      * @param size   the size of the page to be returned, must be greater than 0.
      * @return a list of comments
      */
+    @ReadFromPrimary
+    @Cacheable(cacheNames = COMMENT_PAGES, key = "#newsId + ':' + #page + ':' + #size")
     @Transactional(readOnly = true)
     @Override
     public List<CommentDto> findAll(Long newsId, int page, int size) {
-        newsRepository.findById(newsId).orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + newsId));
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "date"));
-        List<Comment> commentList = commentRepository.findByNewsId(newsId, pageRequest);
-        return commentList.stream().map(mapper::entityToDto).collect(Collectors.toList());
+        List<CommentDto> commentList = commentRepository.findByNewsId(newsId, pageRequest);
+        if (commentList.isEmpty()) {
+            checkNewsExists(newsId);
+        }
+        return commentList;
+    }
+
+    /**
+     * Make a request to receive comments with keyset pagination
+     *
+     * @param newsId for check news
+     * @param after  cursor of the previous page, null or empty for the first page
+     * @param size   the size of the page to be returned, must be greater than 0.
+     * @return a page of comments with the cursor of the following page
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageDto<CommentDto> findAll(Long newsId, String after, int size) {
+        List<CommentDto> commentList;
+        if (StringUtils.hasText(after)) {
+            KeysetCursor<LocalDateTime> cursor = KeysetCursor.decode(after, LocalDateTime::parse);
+            commentList = commentRepository.findByNewsIdAfter(newsId, cursor.getKey(), cursor.getId(), KeysetCursor.limit(size));
+        } else {
+            commentList = commentRepository.findByNewsIdOrderByDateDescIdDesc(newsId, KeysetCursor.limit(size));
+        }
+        if (commentList.isEmpty()) {
+            checkNewsExists(newsId);
+        }
+        return KeysetCursor.page(commentList, size, CommentDto::getDate, CommentDto::getId);
+    }
+
+    /**
+     * Comments of the user across all news with keyset pagination, the most recent first
+     *
+     * @param userName author of the comments
+     * @param after    cursor of the previous page, null or empty for the first page
+     * @param size     the size of the page to be returned, must be greater than 0.
+     * @return a page of comments with their news ids and the cursor of the following page, empty for an unknown user
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageDto<UserCommentDto> findAllByUserName(String userName, String after, int size) {
+        List<UserCommentDto> commentList;
+        if (StringUtils.hasText(after)) {
+            KeysetCursor<LocalDateTime> cursor = KeysetCursor.decode(after, LocalDateTime::parse);
+            commentList = commentRepository.findByUserNameAfter(userName, cursor.getKey(), cursor.getId(), KeysetCursor.limit(size));
+        } else {
+            commentList = commentRepository.findByUserName(userName, KeysetCursor.limit(size));
+        }
+        return KeysetCursor.page(commentList, size, UserCommentDto::getDate, UserCommentDto::getId);
     }
 
     /**
@@ -94,34 +227,116 @@ public class CommentServiceImpl implements CommentService {
      * @param id     the parameter by which we search for comments
      * @return a comments object
      */
+    @ReadFromPrimary
+    @Cacheable(cacheNames = COMMENTS, key = "#newsId + ':' + #id", unless = "#result == null")
     @Transactional(readOnly = true)
     @Override
     public Optional<CommentDto> findById(Long newsId, Long id) {
-        newsRepository.findById(newsId).orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + newsId));
-        return commentRepository.findByNewsIdAndId(newsId, id).map(mapper::entityToDto);
+        Optional<CommentDto> commentDto = commentRepository.findByNewsIdAndId(newsId, id);
+        if (!commentDto.isPresent()) {
+            checkNewsExists(newsId);
+        }
+        return commentDto;
+    }
 
+    /**
+     * Current version of the comment list of the news, for conditional requests
+     *
+     * @param newsId for check news
+     * @return validators of the comment list
+     */
+    @ReadFromPrimary
+    @Cacheable(cacheNames = COMMENT_VERSIONS, key = "#newsId + ':'")
+    @Transactional(readOnly = true)
+    @Override
+    public ResourceVersion findVersion(Long newsId) {
+        CommentsVersionView comments = commentRepository.findVersionByNewsId(newsId);
+        if (comments.getCount() == 0) {
+            checkNewsExists(newsId);
+        }
+        return ResourceVersion.of(comments);
     }
 
     /**
-     * Update object comments
+     * Current version of the comment, for conditional requests
+     *
+     * @param newsId for check news
+     * @param id     the parameter by which we search for comments
+     * @return validators of the comment, empty if there is no such comment
+     */
+    @ReadFromPrimary
+    @Cacheable(cacheNames = COMMENT_VERSIONS, key = "#newsId + ':' + #id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<ResourceVersion> findVersion(Long newsId, Long id) {
+        Optional<ResourceVersion> version = commentRepository.findVersionByNewsIdAndId(newsId, id).map(ResourceVersion::of);
+        if (!version.isPresent()) {
+            checkNewsExists(newsId);
+        }
+        return version;
+    }
+
+    /**
+     * Pass every comment of the news to the consumer, the most recent first, reading them through a database cursor.
+     * The export is written after the response has started, so the news is checked beforehand by {@link #checkNewsExists(Long)}
+     *
+     * @param newsId   for search comments
+     * @param consumer receives the comments one by one
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportAll(Long newsId, Consumer<CommentDto> consumer) {
+        try (Stream<CommentDto> stream = commentRepository.streamByNewsId(newsId)) {
+            stream.forEach(consumer);
+        }
+    }
+
+    /**
+     * Update object comments with one conditional statement, the news and the comment
+     * are looked up only to explain why nothing was updated.
+     * When the client sends the version it has read, the comment is updated only if it is still at that version.
+     * The statement returns the previous date of the comment, with trending news a comment whose date changes
+     * moves between the buckets.
      *
      * @param id         for check news
      * @param commentDto object comments to update
-     * @return updated object comments
+     * @return updated object comments with the new version
+     * @throws VersionConflictException if the comment has been changed since the given version
      */
     @Transactional
     @Override
     public CommentDto update(Long id, CommentDto commentDto) {
-        News news = newsRepository.findById(id).orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + id));
-        commentRepository.findById(commentDto.getId()).orElseThrow(() -> new CommandAcceptanceException(COMMENT_NOT_FOUND + commentDto.getId()));
-        Comment comment = mapper.dtoToEntity(commentDto);
-        comment.setNews(news);
-        Comment saveComment = commentRepository.save(comment);
-        return mapper.entityToDto(saveComment);
+        Long version = commentDto.getVersion();
+        LocalDateTime lastModified = LocalDateTime.now(ZoneOffset.UTC);
+        Optional<UpdatedCommentView> updated = version == null
+                ? commentRepository.updateByNewsIdAndId(id, commentDto.getId(),
+                commentDto.getDate(), commentDto.getText(), commentDto.getUserName(), lastModified)
+                : commentRepository.updateByNewsIdAndIdAndVersion(id, commentDto.getId(), version,
+                commentDto.getDate(), commentDto.getText(), commentDto.getUserName(), lastModified);
+        if (!updated.isPresent()) {
+            checkNewsExists(id);
+            if (version != null && commentRepository.findVersionByNewsIdAndId(id, commentDto.getId()).isPresent()) {
+                throw new VersionConflictException(VERSION_CONFLICT + commentDto.getId());
+            }
+            throw new CommentNotFoundException(COMMENT_NOT_FOUND + commentDto.getId());
+        }
+        // the date of the comment may have changed, nothing is removed but last_comment_at is taken again
+        newsRepository.removeComments(id, 0);
+        commentDto.setVersion(updated.get().getVersion());
+        cacheInvalidator.commentChanged(id, commentDto.getId());
+        LocalDateTime previousDate = updated.get().getPreviousDate();
+        if (!previousDate.equals(commentDto.getDate())) {
+            trendingNews.ifPresent(trending -> {
+                trending.commentDeleted(id, previousDate);
+                trending.commentAdded(id, commentDto.getDate());
+            });
+        }
+        return commentDto;
     }
 
     /**
-     * Delete object comments by id
+     * Delete object comments by id with one conditional statement,
+     * the statement returns the date of the comment for trending news to stop counting it
      *
      * @param newsId for check news
      * @param id     for check comments and delete object comments
@@ -129,9 +344,38 @@ public class CommentServiceImpl implements CommentService {
     @Transactional
     @Override
     public void delete(Long newsId, Long id) {
-        newsRepository.findById(newsId).orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + id));
-        commentRepository.findById(id).orElseThrow(() -> new CommentNotFoundException(COMMENT_NOT_FOUND + id));
-        commentRepository.deleteByNewsIdAndId(newsId, id);
+        Optional<LocalDateTime> date = commentRepository.deleteByNewsIdAndId(newsId, id);
+        if (!date.isPresent()) {
+            checkNewsExists(newsId);
+            throw new CommentNotFoundException(COMMENT_NOT_FOUND + id);
+        }
+        newsRepository.removeComments(newsId, 1);
+        cacheInvalidator.commentChanged(newsId, id);
+        trendingNews.ifPresent(trending -> trending.commentDeleted(newsId, date.get()));
+    }
+
+    /**
+     * Reference to the news for a new comment, only the primary key index is read instead of the whole row
+     *
+     * @param newsId for check news
+     * @return uninitialized proxy of the news
+     */
+    private News newsReference(Long newsId) {
+        checkNewsExists(newsId);
+        return newsRepository.getById(newsId);
+    }
 
+    /**
+     * Check news when a query on comments found nothing, to tell a missing news from a news without comments
+     *
+     * @param newsId for check news
+     * @throws NewsNotFoundException if there is no news with this id
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void checkNewsExists(Long newsId) {
+        if (!newsRepository.existsById(newsId)) {
+            throw new NewsNotFoundException(NEWS_NOT_FOUND + newsId);
+        }
     }
 }
@@ -0,0 +1,140 @@
+package com.example.springboot.task.service.impl;
+
+import com.example.springboot.task.bulkimport.ImportFormat;
+import com.example.springboot.task.bulkimport.ImportKind;
+import com.example.springboot.task.bulkimport.ImportRunner;
+import com.example.springboot.task.bulkimport.ImportStatus;
+import com.example.springboot.task.config.ImportProperties;
+import com.example.springboot.task.dto.ImportJobDto;
+import com.example.springboot.task.entity.ImportJob;
+import com.example.springboot.task.exception.ImportJobNotFoundException;
+import com.example.springboot.task.exception.ImportTooLargeException;
+import com.example.springboot.task.exception.InvalidImportException;
+import com.example.springboot.task.mapper.ImportJobMapper;
+import com.example.springboot.task.repository.ImportJobRepository;
+import com.example.springboot.task.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.example.springboot.task.exception.ExceptionMessage.IMPORT_JOB_NOT_FOUND;
+import static com.example.springboot.task.exception.ExceptionMessage.IMPORT_NOT_RESUMABLE;
+import static com.example.springboot.task.exception.ExceptionMessage.IMPORT_TOO_LARGE;
+
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private final ImportJobRepository repository;
+
+    private final ImportJobMapper mapper;
+
+    private final ImportRunner runner;
+
+    private final ImportProperties properties;
+
+    @Autowired
+    public ImportServiceImpl(ImportJobRepository repository, ImportJobMapper mapper, ImportRunner runner,
+                             ImportProperties properties) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.runner = runner;
+        this.properties = properties;
+    }
+
+    /**
+     * Store the uploaded file in the import directory and queue its import
+     *
+     * @param kind    news or comments
+     * @param format  ndjson or csv
+     * @param content the file, copied to disk as it arrives
+     * @return the pending import
+     * @throws ImportTooLargeException if the file exceeds app.import.max-upload-size, nothing is kept of it
+     */
+    @Override
+    public ImportJobDto create(ImportKind kind, ImportFormat format, InputStream content) {
+        Path file;
+        try {
+            Files.createDirectories(properties.getDirectory());
+            file = properties.getDirectory().resolve(kind.getValue() + "-" + UUID.randomUUID() + "." + format.getExtension())
+                    .toAbsolutePath();
+            store(content, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Import file could not be stored", e);
+        }
+        ImportJob job;
+        try {
+            job = repository.save(ImportJob.builder()
+                    .kind(kind)
+                    .format(format)
+                    .status(ImportStatus.PENDING)
+                    .filePath(file.toString())
+                    .fileSize(file.toFile().length())
+                    .build());
+        } catch (RuntimeException e) {
+            file.toFile().delete();
+            throw e;
+        }
+        runner.submit(job.getId());
+        return mapper.entityToDto(job);
+    }
+
+    private void store(InputStream content, Path file) throws IOException {
+        long maxSize = properties.getMaxUploadSize().toBytes();
+        long size = 0;
+        byte[] buffer = new byte[8192];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new ImportTooLargeException(IMPORT_TOO_LARGE + properties.getMaxUploadSize());
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Search for import by id
+     *
+     * @param id the parameter by which we search for import
+     * @return import with its progress
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<ImportJobDto> findById(Long id) {
+        return repository.findById(id).map(mapper::entityToDto);
+    }
+
+    /**
+     * Queue a failed import again, it continues from its checkpoint
+     *
+     * @param id of the failed import
+     * @return the pending import
+     * @throws InvalidImportException if the import has not failed
+     */
+    @Override
+    public ImportJobDto resume(Long id) {
+        ImportJob job = repository.findById(id).orElseThrow(() -> new ImportJobNotFoundException(IMPORT_JOB_NOT_FOUND + id));
+        if (job.getStatus() != ImportStatus.FAILED) {
+            throw new InvalidImportException(IMPORT_NOT_RESUMABLE + job.getStatus());
+        }
+        job.setStatus(ImportStatus.PENDING);
+        job.setError(null);
+        job = repository.save(job);
+        runner.submit(job.getId());
+        return mapper.entityToDto(job);
+    }
+}
@@ -1,19 +1,52 @@
 package com.example.springboot.task.service.impl;
 
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.datasource.ReadFromPrimary;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
 import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.dto.NewsSearchResultDto;
+import com.example.springboot.task.dto.NewsSort;
 import com.example.springboot.task.entity.News;
+import com.example.springboot.task.exception.InvalidSearchQueryException;
 import com.example.springboot.task.exception.NewsNotFoundException;
+import com.example.springboot.task.exception.VersionConflictException;
 import com.example.springboot.task.mapper.NewsMapper;
+import com.example.springboot.task.repository.CommentRepository;
 import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.repository.projection.NewsComment;
+import com.example.springboot.task.repository.projection.NewsSearchHit;
 import com.example.springboot.task.service.NewsService;
+import com.example.springboot.task.trending.TrendingNews;
+import com.example.springboot.task.util.KeysetCursor;
+import com.example.springboot.task.util.ResourceVersion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_SEARCH_QUERY;
 import static com.example.springboot.task.exception.ExceptionMessage.NEWS_NOT_FOUND;
+import static com.example.springboot.task.exception.ExceptionMessage.VERSION_CONFLICT;
+import static com.example.springboot.task.util.CacheNames.NEWS;
+import static com.example.springboot.task.util.CacheNames.NEWS_VERSIONS;
+import static com.example.springboot.task.util.UtilConstants.IN_CLAUSE_BATCH_SIZE;
+import static com.example.springboot.task.util.UtilConstants.MAX_SEARCH_QUERY_LENGTH;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
 
 @Service
@@ -23,45 +56,155 @@ public class NewsServiceImpl implements NewsService {
 
     private final NewsMapper mapper;
 
+    private final CommentRepository commentRepository;
+
+    private final CacheInvalidator cacheInvalidator;
+
+    /**
+     * absent when app.trending.enabled=false
+     */
+    private final Optional<TrendingNews> trendingNews;
+
     @Autowired
-    public NewsServiceImpl(NewsRepository newsRepository, NewsMapper mapper) {
+    public NewsServiceImpl(NewsRepository newsRepository, NewsMapper mapper, CommentRepository commentRepository,
+                           CacheInvalidator cacheInvalidator, Optional<TrendingNews> trendingNews) {
         this.newsRepository = newsRepository;
         this.mapper = mapper;
+        this.commentRepository = commentRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.trendingNews = trendingNews;
     }
 
     /**
      * Make a request to receive all news
      *
+     * @param withComments load comments of every news
      * @return a list of objects news
      */
+    @Transactional(readOnly = true)
     @Override
-    public List<NewsDto> findAll() {
-        return newsRepository.findAll().stream().map(mapper::entityToDto)
-                .collect(toList());
+    public List<NewsDto> findAll(boolean withComments) {
+        return withComments(newsRepository.findAllSummaries(), withComments);
     }
 
     /**
-     * find all news with pagination
+     * find all news with pagination, every order is read from its own index
      *
-     * @param pageable page + amount of results
+     * @param pageable     page + amount of results, the order is given by sort
+     * @param sort         the most recent, the most discussed or the recently active news first
+     * @param withComments load comments of every news on the page
      * @return a list of objects news
      */
+    @Transactional(readOnly = true)
+    @Override
+    public List<NewsDto> findAll(Pageable pageable, NewsSort sort, boolean withComments) {
+        List<NewsDto> newsList;
+        switch (sort) {
+            case COMMENTS:
+                newsList = newsRepository.findAllByOrderByCommentCountDescIdDesc(pageable);
+                break;
+            case ACTIVITY:
+                newsList = newsRepository.findAllByRecentActivity(pageable);
+                break;
+            default:
+                newsList = newsRepository.findAllByOrderByDateDescIdDesc(pageable);
+        }
+        return withComments(newsList, withComments);
+    }
+
+    /**
+     * find news with keyset pagination, the cost of a page does not depend on its depth
+     *
+     * @param after        cursor of the previous page, null or empty for the first page
+     * @param size         the size of the page to be returned, must be greater than 0.
+     * @param withComments load comments of every news on the page
+     * @return a page of objects news with the cursor of the following page
+     */
+    @Transactional(readOnly = true)
     @Override
-    public List<NewsDto> findAll(Pageable pageable) {
-        return newsRepository.findAll(pageable).stream().map(mapper::entityToDto)
-                .collect(toList());
+    public CursorPageDto<NewsDto> findAll(String after, int size, boolean withComments) {
+        List<NewsDto> newsList;
+        if (StringUtils.hasText(after)) {
+            KeysetCursor<LocalDateTime> cursor = KeysetCursor.decode(after, LocalDateTime::parse);
+            newsList = newsRepository.findAllAfter(cursor.getKey(), cursor.getId(), KeysetCursor.limit(size));
+        } else {
+            newsList = newsRepository.findAllByOrderByDateDescIdDesc(KeysetCursor.limit(size));
+        }
+        CursorPageDto<NewsDto> page = KeysetCursor.page(newsList, size, NewsDto::getDate, NewsDto::getId);
+        if (withComments) {
+            attachComments(page.getContent());
+        }
+        return page;
+    }
+
+    /**
+     * Full-text search over titles and texts of news, the most relevant news first
+     *
+     * @param query words to search for in web search syntax: quoted phrases, "or", "-" to exclude a word
+     * @param after cursor of the previous page, null or empty for the first page
+     * @param size  the size of the page to be returned, must be greater than 0.
+     * @return a page of found news with highlighted snippets and the cursor of the following page
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageDto<NewsSearchResultDto> search(String query, String after, int size) {
+        if (!StringUtils.hasText(query) || query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new InvalidSearchQueryException(INVALID_SEARCH_QUERY + query);
+        }
+        int limit = KeysetCursor.limit(size).getPageSize();
+        List<NewsSearchHit> hits;
+        if (StringUtils.hasText(after)) {
+            KeysetCursor<Float> cursor = KeysetCursor.decode(after, Float::valueOf);
+            hits = newsRepository.searchAfter(query, cursor.getKey(), cursor.getId(), limit);
+        } else {
+            hits = newsRepository.search(query, limit);
+        }
+        List<NewsSearchResultDto> results = hits.stream().map(mapper::hitToDto).collect(toList());
+        return KeysetCursor.page(results, size, NewsSearchResultDto::getRank, NewsSearchResultDto::getId);
     }
 
     /**
      * Search for news by id
      *
      * @param id the parameter by which we search for news
-     * @return an object news
+     * @return an object news with its comments, the most recent first
      */
+    @ReadFromPrimary
+    @Cacheable(cacheNames = NEWS, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
     @Override
     public Optional<NewsDto> findById(Long id) {
-        return newsRepository.findById(id).map(mapper::entityToDto);
+        Optional<NewsDto> newsDto = newsRepository.findSummaryById(id);
+        newsDto.ifPresent(news -> attachComments(Collections.singletonList(news)));
+        return newsDto;
+    }
 
+    /**
+     * Current version of the news with its comments, for conditional requests
+     *
+     * @param id the parameter by which we search for news
+     * @return validators of the news, empty if there is no such news
+     */
+    @ReadFromPrimary
+    @Cacheable(cacheNames = NEWS_VERSIONS, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<ResourceVersion> findVersion(Long id) {
+        return newsRepository.findVersionById(id)
+                .map(news -> ResourceVersion.of(news, commentRepository.findVersionByNewsId(id)));
+    }
+
+    /**
+     * Pass every news without comments to the consumer, the most recent first, reading them through a database cursor
+     *
+     * @param consumer receives the news one by one
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportAll(Consumer<NewsDto> consumer) {
+        try (Stream<NewsDto> stream = newsRepository.streamAll()) {
+            stream.forEach(consumer);
+        }
     }
 
     /**
@@ -70,6 +213,7 @@ public class NewsServiceImpl implements NewsService {
      * @param newsDto object news to save
      * @return saved news
      */
+    @Transactional
     @Override
     public NewsDto create(NewsDto newsDto) {
         News news = newsRepository.save(mapper.dtoToEntity(newsDto));
@@ -77,29 +221,68 @@ public class NewsServiceImpl implements NewsService {
     }
 
     /**
-     * Update object news
+     * Update object news, with optimistic locking when the client sends the version it has read
      *
      * @param newsDto object news to update
-     * @return updated object news
+     * @return updated object news with the new version
+     * @throws VersionConflictException if the news has been changed since the given version
      */
+    @Transactional
     @Override
     public NewsDto update(NewsDto newsDto) {
-        newsRepository.findById(newsDto.getId())
+        News news = newsRepository.findById(newsDto.getId())
                 .orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + newsDto.getId()));
-        News news = newsRepository.save(mapper.dtoToEntity(newsDto));
+        if (newsDto.getVersion() != null && !newsDto.getVersion().equals(news.getVersion())) {
+            throw new VersionConflictException(VERSION_CONFLICT + newsDto.getId());
+        }
+        mapper.updateEntity(newsDto, news);
+        try {
+            news = newsRepository.saveAndFlush(news);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new VersionConflictException(VERSION_CONFLICT + newsDto.getId());
+        }
+        cacheInvalidator.newsChanged(news.getId());
         return mapper.entityToDto(news);
     }
 
     /**
-     * Delete object news by id
+     * Delete object news by id together with its comments in one statement
      *
      * @param id for delete object news
      */
+    @Transactional
     @Override
     public void delete(Long id) {
-        News news = newsRepository.findById(id).orElseThrow(() -> new NewsNotFoundException(NEWS_NOT_FOUND + id));
-        newsRepository.deleteById(news.getId());
+        if (newsRepository.deleteNewsById(id) == 0) {
+            throw new NewsNotFoundException(NEWS_NOT_FOUND + id);
+        }
+        cacheInvalidator.newsDeleted(id);
+        trendingNews.ifPresent(trending -> trending.newsDeleted(id));
     }
 
+    /**
+     * Load the comments of the whole list with one query per
+     * {@link com.example.springboot.task.util.UtilConstants#IN_CLAUSE_BATCH_SIZE} news
+     *
+     * @param dtoList      news read without their comments
+     * @param withComments load comments of every news
+     * @return the same list
+     */
+    private List<NewsDto> withComments(List<NewsDto> dtoList, boolean withComments) {
+        if (withComments) {
+            attachComments(dtoList);
+        }
+        return dtoList;
+    }
 
+    private void attachComments(List<NewsDto> dtoList) {
+        Map<Long, List<CommentDto>> commentsByNewsId = new HashMap<>();
+        for (int from = 0; from < dtoList.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<Long> newsIds = dtoList.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, dtoList.size())).stream()
+                    .map(NewsDto::getId).collect(toList());
+            commentsByNewsId.putAll(commentRepository.findByNewsIdInOrderByDateDescIdDesc(newsIds).stream()
+                    .collect(groupingBy(NewsComment::getNewsId, mapping(NewsComment::getComment, toList()))));
+        }
+        dtoList.forEach(newsDto -> newsDto.setCommentList(commentsByNewsId.getOrDefault(newsDto.getId(), new ArrayList<>())));
+    }
 }
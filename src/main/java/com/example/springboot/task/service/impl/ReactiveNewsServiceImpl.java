@@ -0,0 +1,87 @@
+package com.example.springboot.task.service.impl;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.exception.CommentNotFoundException;
+import com.example.springboot.task.exception.NewsNotFoundException;
+import com.example.springboot.task.repository.reactive.CommentReactiveRepository;
+import com.example.springboot.task.repository.reactive.NewsReactiveRepository;
+import com.example.springboot.task.service.ReactiveNewsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.example.springboot.task.exception.ExceptionMessage.COMMENT_NOT_FOUND;
+import static com.example.springboot.task.exception.ExceptionMessage.NEWS_NOT_FOUND;
+
+@Service
+public class ReactiveNewsServiceImpl implements ReactiveNewsService {
+
+    private final NewsReactiveRepository newsRepository;
+
+    private final CommentReactiveRepository commentRepository;
+
+    @Autowired
+    public ReactiveNewsServiceImpl(NewsReactiveRepository newsRepository, CommentReactiveRepository commentRepository) {
+        this.newsRepository = newsRepository;
+        this.commentRepository = commentRepository;
+    }
+
+    /**
+     * Stream all news without comments
+     *
+     * @return news, the most recent first
+     */
+    @Override
+    public Flux<NewsDto> findAll() {
+        return newsRepository.findAll();
+    }
+
+    /**
+     * Search for news by id together with its comments, both queries run at the same time
+     *
+     * @param id the parameter by which we search for news
+     * @return an object news or NewsNotFoundException
+     */
+    @Override
+    public Mono<NewsDto> findById(Long id) {
+        return Mono.zip(newsRepository.findById(id), commentRepository.findByNewsId(id).collectList())
+                .map(newsAndComments -> {
+                    NewsDto newsDto = newsAndComments.getT1();
+                    newsDto.setCommentList(newsAndComments.getT2());
+                    return newsDto;
+                })
+                .switchIfEmpty(Mono.error(() -> new NewsNotFoundException(NEWS_NOT_FOUND + id)));
+    }
+
+    /**
+     * Stream the comments of the news
+     *
+     * @param newsId for check news and search comments
+     * @return comments, the most recent first, or NewsNotFoundException
+     */
+    @Override
+    public Flux<CommentDto> findComments(Long newsId) {
+        return newsRepository.existsById(newsId)
+                .flatMapMany(exists -> exists
+                        ? commentRepository.findByNewsId(newsId)
+                        : Flux.error(new NewsNotFoundException(NEWS_NOT_FOUND + newsId)));
+    }
+
+    /**
+     * Search for comment by id
+     *
+     * @param newsId for check news and search comments
+     * @param id     the parameter by which we search for comments
+     * @return a comments object, otherwise NewsNotFoundException or CommentNotFoundException
+     */
+    @Override
+    public Mono<CommentDto> findComment(Long newsId, Long id) {
+        return commentRepository.findByNewsIdAndId(newsId, id)
+                .switchIfEmpty(newsRepository.existsById(newsId)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new CommentNotFoundException(COMMENT_NOT_FOUND + id)
+                                : new NewsNotFoundException(NEWS_NOT_FOUND + newsId))));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springboot.task.trending;
+
+import com.example.springboot.task.dto.TrendingWindow;
+
+/**
+ * Comments of one news counted in the buckets of every window. Each window is a ring of buckets which is advanced
+ * to the current bucket before any change or read, so a slot always holds one of the buckets of the window
+ * and the total of the window is kept without summing the ring.
+ * Not thread-safe, TrendingNews changes and reads it under its ranking lock.
+ */
+class NewsActivity {
+
+    private static final TrendingWindow[] WINDOWS = TrendingWindow.values();
+
+    private final int[][] rings = new int[WINDOWS.length][];
+
+    private final long[] currentBuckets = new long[WINDOWS.length];
+
+    private final int[] totals = new int[WINDOWS.length];
+
+    NewsActivity(long nowSecond) {
+        for (TrendingWindow window : WINDOWS) {
+            rings[window.ordinal()] = new int[window.buckets()];
+            currentBuckets[window.ordinal()] = nowSecond / window.getBucket().getSeconds();
+        }
+    }
+
+    /**
+     * Count comments in every window which still covers their second, a second in the future counts as now
+     *
+     * @param second    epoch second of the comments
+     * @param delta     added comments, negative for deleted ones
+     * @param nowSecond current epoch second
+     */
+    void add(long second, int delta, long nowSecond) {
+        for (TrendingWindow window : WINDOWS) {
+            int w = window.ordinal();
+            advance(window, nowSecond);
+            long bucket = Math.min(second / window.getBucket().getSeconds(), currentBuckets[w]);
+            int[] ring = rings[w];
+            if (bucket <= currentBuckets[w] - ring.length) {
+                continue;
+            }
+            int slot = (int) (bucket % ring.length);
+            // a comment counted before the start is not in the rebuilt buckets when it is deleted
+            int change = Math.max(delta, -ring[slot]);
+            ring[slot] += change;
+            totals[w] += change;
+        }
+    }
+
+    /**
+     * @return comments in the window until now
+     */
+    int total(TrendingWindow window, long nowSecond) {
+        advance(window, nowSecond);
+        return totals[window.ordinal()];
+    }
+
+    /**
+     * @return whether there are no comments left in any window, the longest covers the others
+     */
+    boolean isEmpty(long nowSecond) {
+        for (TrendingWindow window : WINDOWS) {
+            if (total(window, nowSecond) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void advance(TrendingWindow window, long nowSecond) {
+        int w = window.ordinal();
+        int[] ring = rings[w];
+        long now = nowSecond / window.getBucket().getSeconds();
+        long from = Math.max(currentBuckets[w] + 1, now - ring.length + 1);
+        for (long bucket = from; bucket <= now; bucket++) {
+            int slot = (int) (bucket % ring.length);
+            totals[w] -= ring[slot];
+            ring[slot] = 0;
+        }
+        currentBuckets[w] = Math.max(currentBuckets[w], now);
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.springboot.task.trending;
+
+import com.example.springboot.task.dto.TrendingNewsDto;
+import com.example.springboot.task.dto.TrendingWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * News with the most comments in the sliding windows of {@link TrendingWindow}, kept in memory so that
+ * GET /news/trending does not touch the database.
+ * <p>
+ * Comments are counted per news in time buckets by their date (UTC) once their transaction has committed,
+ * see {@link NewsActivity}. The top news of every window are kept in order as comments arrive; since counts
+ * only drop when buckets leave a window or comments are deleted, the top news are taken again from all counts
+ * at the end of every bucket of the shortest window, when news without comments in any window are forgotten.
+ * The counts are rebuilt from the comments of the longest window on start.
+ */
+public class TrendingNews implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrendingNews.class);
+
+    private static final TrendingWindow[] WINDOWS = TrendingWindow.values();
+
+    private static final TrendingWindow LONGEST = TrendingWindow.DAY;
+
+    private static final long REBUILD_BUCKET_SECONDS = TrendingWindow.FIVE_MINUTES.getBucket().getSeconds();
+
+    private static final String REBUILD = "select news_id, cast(floor(extract(epoch from date) / ?) as bigint) as bucket, " +
+            "count(*) as comments from comments where date > ? group by news_id, bucket";
+
+    private static final Comparator<TrendingNewsDto> RANKING = Comparator.comparingInt(TrendingNewsDto::getComments).reversed()
+            .thenComparing(TrendingNewsDto::getNewsId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int topSize;
+
+    private final Clock clock;
+
+    private final Map<Long, NewsActivity> activities = new ConcurrentHashMap<>();
+
+    /**
+     * guards the counts and the top news of all windows
+     */
+    private final Object rankingLock = new Object();
+
+    private final List<TreeSet<TrendingNewsDto>> rankings = new ArrayList<>();
+
+    private final List<Map<Long, TrendingNewsDto>> rankedNews = new ArrayList<>();
+
+    /**
+     * top news of every window as served, taken again from the rankings after a change
+     */
+    private final List<List<TrendingNewsDto>> snapshots = new ArrayList<>();
+
+    private final boolean[] changed = new boolean[WINDOWS.length];
+
+    private ScheduledExecutorService ticker;
+
+    private volatile boolean running;
+
+    public TrendingNews(JdbcTemplate jdbcTemplate, int topSize, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.topSize = topSize;
+        this.clock = clock;
+        for (TrendingWindow ignored : WINDOWS) {
+            rankings.add(new TreeSet<>(RANKING));
+            rankedNews.add(new HashMap<>());
+            snapshots.add(Collections.emptyList());
+        }
+    }
+
+    /**
+     * @param window sliding window
+     * @param size   at most this many news, no more than app.trending.top-size
+     * @return the news with the most comments in the window, the most commented first
+     */
+    public List<TrendingNewsDto> top(TrendingWindow window, int size) {
+        List<TrendingNewsDto> snapshot;
+        synchronized (rankingLock) {
+            int w = window.ordinal();
+            if (changed[w]) {
+                List<TrendingNewsDto> copy = new ArrayList<>(rankings.get(w).size());
+                rankings.get(w).forEach(news -> copy.add(new TrendingNewsDto(news.getNewsId(), news.getComments())));
+                snapshots.set(w, Collections.unmodifiableList(copy));
+                changed[w] = false;
+            }
+            snapshot = snapshots.get(w);
+        }
+        return snapshot.subList(0, Math.min(Math.max(size, 0), snapshot.size()));
+    }
+
+    /**
+     * Count a new comment once the transaction which inserted it has committed
+     *
+     * @param newsId id of the news
+     * @param date   date of the comment
+     */
+    public void commentAdded(Long newsId, LocalDateTime date) {
+        afterCommit(() -> count(newsId, Collections.singletonList(date), 1));
+    }
+
+    /**
+     * Count new comments of one news once the transaction which inserted them has committed
+     *
+     * @param newsId id of the news
+     * @param dates  dates of the comments
+     */
+    public void commentsAdded(Long newsId, Collection<LocalDateTime> dates) {
+        afterCommit(() -> count(newsId, dates, 1));
+    }
+
+    /**
+     * Stop counting a deleted comment once the transaction which deleted it has committed
+     *
+     * @param newsId id of the news
+     * @param date   date of the comment
+     */
+    public void commentDeleted(Long newsId, LocalDateTime date) {
+        afterCommit(() -> count(newsId, Collections.singletonList(date), -1));
+    }
+
+    /**
+     * Forget a deleted news once the transaction which deleted it has committed
+     *
+     * @param newsId id of the news
+     */
+    public void newsDeleted(Long newsId) {
+        afterCommit(() -> {
+            synchronized (rankingLock) {
+                activities.remove(newsId);
+                for (TrendingWindow window : WINDOWS) {
+                    TrendingNewsDto ranked = rankedNews.get(window.ordinal()).remove(newsId);
+                    if (ranked != null) {
+                        rankings.get(window.ordinal()).remove(ranked);
+                        changed[window.ordinal()] = true;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return news with comments in the longest window
+     */
+    public int trackedNews() {
+        return activities.size();
+    }
+
+    /**
+     * Count the comments of the longest window again from the database
+     */
+    public void rebuild() {
+        long now = nowSecond();
+        LocalDateTime since = LocalDateTime.ofEpochSecond(now - LONGEST.getLength().getSeconds(), 0, ZoneOffset.UTC);
+        synchronized (rankingLock) {
+            activities.clear();
+            jdbcTemplate.query(REBUILD, resultSet -> {
+                long second = resultSet.getLong("bucket") * REBUILD_BUCKET_SECONDS;
+                activities.computeIfAbsent(resultSet.getLong("news_id"), id -> new NewsActivity(now))
+                        .add(second, resultSet.getInt("comments"), now);
+            }, REBUILD_BUCKET_SECONDS, Timestamp.valueOf(since));
+            rerank();
+        }
+        LOGGER.info("Trending news rebuilt from the comments since {}, {} news", since, activities.size());
+    }
+
+    /**
+     * Take the top news of every window again from all counts and forget the news without comments
+     */
+    public void rerank() {
+        long now = nowSecond();
+        List<PriorityQueue<TrendingNewsDto>> tops = new ArrayList<>();
+        for (TrendingWindow ignored : WINDOWS) {
+            tops.add(new PriorityQueue<>(topSize + 1, RANKING.reversed()));
+        }
+        synchronized (rankingLock) {
+            activities.values().removeIf(activity -> activity.isEmpty(now));
+            activities.forEach((newsId, activity) -> {
+                for (TrendingWindow window : WINDOWS) {
+                    int comments = activity.total(window, now);
+                    if (comments > 0) {
+                        PriorityQueue<TrendingNewsDto> top = tops.get(window.ordinal());
+                        top.add(new TrendingNewsDto(newsId, comments));
+                        if (top.size() > topSize) {
+                            top.poll();
+                        }
+                    }
+                }
+            });
+            for (TrendingWindow window : WINDOWS) {
+                int w = window.ordinal();
+                rankings.get(w).clear();
+                rankedNews.get(w).clear();
+                tops.get(w).forEach(news -> {
+                    rankings.get(w).add(news);
+                    rankedNews.get(w).put(news.getNewsId(), news);
+                });
+                changed[w] = true;
+            }
+        }
+    }
+
+    private void count(Long newsId, Collection<LocalDateTime> dates, int delta) {
+        long now = nowSecond();
+        synchronized (rankingLock) {
+            NewsActivity activity = activities.computeIfAbsent(newsId, id -> new NewsActivity(now));
+            for (LocalDateTime date : dates) {
+                activity.add(date.toEpochSecond(ZoneOffset.UTC), delta, now);
+            }
+            for (TrendingWindow window : WINDOWS) {
+                rank(window, newsId, activity.total(window, now));
+            }
+        }
+    }
+
+    /**
+     * Move the news within the top news of the window. A news which fell is only moved down,
+     * a news outside the top which now has more comments is found by the next {@link #rerank()}
+     */
+    private void rank(TrendingWindow window, Long newsId, int comments) {
+        int w = window.ordinal();
+        TreeSet<TrendingNewsDto> ranking = rankings.get(w);
+        Map<Long, TrendingNewsDto> ranked = rankedNews.get(w);
+        TrendingNewsDto current = ranked.get(newsId);
+        if (current != null) {
+            if (current.getComments() == comments) {
+                return;
+            }
+            ranking.remove(current);
+            ranked.remove(newsId);
+        }
+        if (comments > 0) {
+            TrendingNewsDto news = new TrendingNewsDto(newsId, comments);
+            if (ranking.size() < topSize || RANKING.compare(news, ranking.last()) < 0) {
+                ranking.add(news);
+                ranked.put(newsId, news);
+                if (ranking.size() > topSize) {
+                    ranked.remove(ranking.pollLast().getNewsId());
+                }
+            }
+        }
+        changed[w] = true;
+    }
+
+    private long nowSecond() {
+        return TimeUnit.MILLISECONDS.toSeconds(clock.millis());
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    @Override
+    public void start() {
+        rebuild();
+        long tick = TrendingWindow.FIVE_MINUTES.getBucket().toMillis();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trending-news");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                rerank();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Trending news could not be ranked", e);
+            }
+        }, tick - clock.millis() % tick, tick, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before the comment writers and the web server, so no comment is counted both by the rebuild and as it arrives
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 3;
+    }
+}
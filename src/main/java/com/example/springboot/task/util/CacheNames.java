@@ -0,0 +1,10 @@
+package com.example.springboot.task.util;
+
+public class CacheNames {
+    public static final String NEWS = "news";
+    public static final String COMMENTS = "comments";
+    public static final String COMMENT_PAGES = "comment-pages";
+    public static final String NEWS_VERSIONS = "news-versions";
+    public static final String COMMENT_VERSIONS = "comment-versions";
+    public static final String[] ALL = {NEWS, COMMENTS, COMMENT_PAGES, NEWS_VERSIONS, COMMENT_VERSIONS};
+}
@@ -0,0 +1,101 @@
+package com.example.springboot.task.util;
+
+import com.example.springboot.task.dto.CursorPageDto;
+import com.example.springboot.task.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_CURSOR;
+
+/**
+ * Position of the last row of a keyset page, ordered by (key DESC, id DESC): the date for news and comments,
+ * the rank for the full-text search. Clients receive it as an opaque url-safe string and send it back unchanged.
+ * The key is written with toString and read back by the parser given to {@link #decode(String, Function)},
+ * which has to restore it exactly (LocalDateTime::parse, Float::valueOf for the float4 rank of ts_rank),
+ * so the following page continues right after the last returned row.
+ *
+ * @param <K> type of the sort key
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor<K> {
+
+    private static final String SEPARATOR = "|";
+
+    private final K key;
+
+    private final Long id;
+
+    /**
+     * Encode position of the row into an opaque cursor
+     *
+     * @param key sort key of the last row on the page
+     * @param id  id of the last row on the page
+     * @return url-safe cursor string
+     */
+    public static String encode(Object key, Long id) {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode cursor received from the client
+     *
+     * @param cursor   value of the "after" parameter
+     * @param keyParser reads the sort key written by {@link #encode(Object, Long)}
+     * @return decoded position
+     * @throws InvalidCursorException if the cursor was not produced by {@link #encode(Object, Long)}
+     */
+    public static <K> KeysetCursor<K> decode(String cursor, Function<String, K> keyParser) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException(INVALID_CURSOR + cursor);
+            }
+            return new KeysetCursor<>(keyParser.apply(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException(INVALID_CURSOR + cursor);
+        }
+    }
+
+    /**
+     * Limit for a keyset query, one row more than the page to find out whether a following page exists
+     *
+     * @param size the size of the page to be returned, must be greater than 0.
+     * @return first page request of size + 1 rows, sorting is defined by the query itself
+     */
+    public static Pageable limit(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    /**
+     * Build a page from rows fetched with {@link #limit(int)}, the extra row only signals that a following page exists
+     *
+     * @param rows  rows ordered by (key DESC, id DESC)
+     * @param size  requested size of the page
+     * @param keyOf extracts sort key of the row
+     * @param idOf  extracts id of the row
+     * @return page with at most size rows and the cursor of the following page
+     */
+    public static <T> CursorPageDto<T> page(List<T> rows, int size, Function<T, ?> keyOf, Function<T, Long> idOf) {
+        if (rows.size() <= size) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> content = new ArrayList<>(rows.subList(0, size));
+        T last = content.get(size - 1);
+        return new CursorPageDto<>(content, encode(keyOf.apply(last), idOf.apply(last)));
+    }
+}
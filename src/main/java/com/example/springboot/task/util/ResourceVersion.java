@@ -0,0 +1,70 @@
+package com.example.springboot.task.util;
+
+import com.example.springboot.task.repository.projection.CommentsVersionView;
+import com.example.springboot.task.repository.projection.VersionView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Validators of a resource for conditional requests, computed from version columns without loading the resource
+ */
+@Getter
+@AllArgsConstructor
+public class ResourceVersion {
+
+    /**
+     * opaque tag of the version, without quotes
+     */
+    private final String eTag;
+
+    /**
+     * value of the Last-Modified header in epoch milliseconds, -1 if unknown
+     */
+    private final long lastModified;
+
+    /**
+     * @param row version of a single news or comment
+     * @return validators of the row
+     */
+    public static ResourceVersion of(VersionView row) {
+        return new ResourceVersion("v" + row.getVersion(), toEpochMilli(row.getLastModified()));
+    }
+
+    /**
+     * @param comments version of the comment list
+     * @return validators of the comment list
+     */
+    public static ResourceVersion of(CommentsVersionView comments) {
+        return new ResourceVersion("c" + comments.getCount() + "-" + toEpochMilli(comments.getLastModified()),
+                toEpochMilli(comments.getLastModified()));
+    }
+
+    /**
+     * @param news     version of the news
+     * @param comments version of its comment list
+     * @return validators of the news with embedded comments
+     */
+    public static ResourceVersion of(VersionView news, CommentsVersionView comments) {
+        ResourceVersion newsVersion = of(news);
+        ResourceVersion commentsVersion = of(comments);
+        return new ResourceVersion(newsVersion.eTag + "-" + commentsVersion.eTag,
+                Math.max(newsVersion.lastModified, commentsVersion.lastModified));
+    }
+
+    /**
+     * The tag is weak: the same version is served as JSON, CBOR or Smile, compressed or not.
+     * Tomcat does not compress responses with a strong ETag.
+     *
+     * @return value of the ETag header
+     */
+    public String getETag() {
+        return "W/\"" + eTag + "\"";
+    }
+
+    private static long toEpochMilli(LocalDateTime utc) {
+        return utc == null ? -1 : utc.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -3,4 +3,16 @@ package com.example.springboot.task.util;
 public class UtilConstants {
     public static final String DEFAULT_PAGE_NUMBER = "0";
     public static final String DEFAULT_PAGE_SIZE = "5";
+    public static final String INCLUDE_COMMENTS = "comments";
+    public static final String DEFAULT_NEWS_SORT = "date";
+    public static final String DEFAULT_TRENDING_WINDOW = "1h";
+    public static final String DEFAULT_TRENDING_SIZE = "10";
+    public static final int IN_CLAUSE_BATCH_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final String COMMENTS_ID_SEQUENCE = "comments_id_seq";
+    public static final int COMMENTS_ID_ALLOCATION_SIZE = 50;
+    public static final int MAX_SEARCH_QUERY_LENGTH = 256;
+    public static final String EXPORT_FETCH_SIZE = "500";
+    public static final String DEFAULT_EXPORT_FORMAT = "ndjson";
+    public static final String SERVICE_METHOD_MDC_KEY = "serviceMethod";
 }
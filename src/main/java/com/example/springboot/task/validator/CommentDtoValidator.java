@@ -0,0 +1,53 @@
+package com.example.springboot.task.validator;
+
+import com.example.springboot.task.dto.CommentDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Checks a comment against the constraints of the comments table and the Comment entity
+ * before it is sent to the database, so a bad item of a batch does not fail the whole batch
+ */
+@Component
+public class CommentDtoValidator {
+
+    private static final int TEXT_MAX_LENGTH = 1000;
+    private static final int USER_NAME_MIN_LENGTH = 3;
+    private static final int USER_NAME_MAX_LENGTH = 128;
+    private static final Pattern USER_NAME_PATTERN = Pattern.compile("^[A-z]*$");
+
+    /**
+     * Validate object comments
+     *
+     * @param commentDto object comments to check
+     * @return messages of violated constraints, empty if the comment is valid
+     */
+    public List<String> validate(CommentDto commentDto) {
+        List<String> errors = new ArrayList<>();
+        if (commentDto == null) {
+            errors.add("comment must not be null");
+            return errors;
+        }
+        if (commentDto.getDate() == null) {
+            errors.add("date must not be null");
+        }
+        if (commentDto.getText() != null && commentDto.getText().length() > TEXT_MAX_LENGTH) {
+            errors.add("text must not be longer than " + TEXT_MAX_LENGTH);
+        }
+        String userName = commentDto.getUserName();
+        if (userName == null) {
+            errors.add("userName must not be null");
+        } else {
+            if (userName.length() < USER_NAME_MIN_LENGTH || userName.length() > USER_NAME_MAX_LENGTH) {
+                errors.add("userName length must be between " + USER_NAME_MIN_LENGTH + " and " + USER_NAME_MAX_LENGTH);
+            }
+            if (!USER_NAME_PATTERN.matcher(userName).matches()) {
+                errors.add("userName must match " + USER_NAME_PATTERN.pattern());
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.springboot.task.validator;
+
+import com.example.springboot.task.dto.NewsDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks a news against the constraints of the news table and the News entity before it is sent to the database,
+ * the title is limited by the column, which is shorter than the @Size of the entity
+ */
+@Component
+public class NewsDtoValidator {
+
+    private static final int TITLE_MIN_LENGTH = 5;
+    private static final int TITLE_MAX_LENGTH = 128;
+    private static final int TEXT_MAX_LENGTH = 5000;
+
+    /**
+     * Validate object news
+     *
+     * @param newsDto object news to check
+     * @return messages of violated constraints, empty if the news is valid
+     */
+    public List<String> validate(NewsDto newsDto) {
+        List<String> errors = new ArrayList<>();
+        if (newsDto == null) {
+            errors.add("news must not be null");
+            return errors;
+        }
+        if (newsDto.getDate() == null) {
+            errors.add("date must not be null");
+        }
+        String title = newsDto.getTitle();
+        if (title == null) {
+            errors.add("title must not be null");
+        } else if (title.length() < TITLE_MIN_LENGTH || title.length() > TITLE_MAX_LENGTH) {
+            errors.add("title length must be between " + TITLE_MIN_LENGTH + " and " + TITLE_MAX_LENGTH);
+        }
+        if (newsDto.getText() == null) {
+            errors.add("text must not be null");
+        } else if (newsDto.getText().length() > TEXT_MAX_LENGTH) {
+            errors.add("text must not be longer than " + TEXT_MAX_LENGTH);
+        }
+        return errors;
+    }
+}
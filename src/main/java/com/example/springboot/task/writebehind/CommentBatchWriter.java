@@ -0,0 +1,121 @@
+package com.example.springboot.task.writebehind;
+
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.trending.TrendingNews;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Writes a batch of accepted comments in one transaction: one query for the comments already written,
+ * one for the news that still exist, one batched insert and one update of the comment aggregates per news
+ */
+public class CommentBatchWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommentBatchWriter.class);
+
+    private static final String INSERT = "insert into comments (id, date, text, user_name, news_id, version, last_modified) " +
+            "values (?, ?, ?, ?, ?, 0, ?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final NewsRepository newsRepository;
+
+    private final CacheInvalidator cacheInvalidator;
+
+    private final Optional<TrendingNews> trendingNews;
+
+    public CommentBatchWriter(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              NewsRepository newsRepository, CacheInvalidator cacheInvalidator,
+                              Optional<TrendingNews> trendingNews) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.newsRepository = newsRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.trendingNews = trendingNews;
+    }
+
+    /**
+     * Write the batch. Comments written before a crash are found by their id and skipped,
+     * comments of news deleted since they were accepted are dropped.
+     *
+     * @param batch comments in the order of acceptance, at most
+     *              {@link com.example.springboot.task.util.UtilConstants#IN_CLAUSE_BATCH_SIZE}
+     * @return number of comments inserted and of comments dropped because their news has been deleted
+     */
+    public BatchWritten write(List<PendingComment> batch) {
+        BatchWritten written = transactionTemplate.execute(status -> {
+            // by id alone: a comment written before a crash may have been given another date since, and the primary key
+            // (id, date) of the partitioned table would not stop a second insert
+            Set<Long> writtenIds = new HashSet<>(jdbcTemplate.queryForList("select id from comments where id in (:ids)",
+                    Collections.singletonMap("ids", batch.stream().map(pending -> pending.getComment().getId()).collect(toList())),
+                    Long.class));
+            Set<Long> existingNews = new HashSet<>(jdbcTemplate.queryForList("select id from news where id in (:ids)",
+                    Collections.singletonMap("ids", batch.stream().map(PendingComment::getNewsId).collect(toSet())),
+                    Long.class));
+            List<PendingComment> pendingRows = batch.stream()
+                    .filter(pending -> !writtenIds.contains(pending.getComment().getId()))
+                    .collect(toList());
+            List<PendingComment> rows = pendingRows.stream()
+                    .filter(pending -> existingNews.contains(pending.getNewsId()))
+                    .collect(toList());
+            int newsDeleted = pendingRows.size() - rows.size();
+            pendingRows.stream().filter(pending -> !existingNews.contains(pending.getNewsId())).forEach(pending ->
+                    LOGGER.warn("Dropped comment {}, news {} has been deleted", pending.getComment().getId(), pending.getNewsId()));
+            if (rows.isEmpty()) {
+                return new BatchWritten(0, newsDeleted);
+            }
+            Timestamp lastModified = Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC));
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT, rows, rows.size(), (statement, pending) -> {
+                CommentDto comment = pending.getComment();
+                statement.setLong(1, comment.getId());
+                statement.setTimestamp(2, Timestamp.valueOf(comment.getDate()));
+                statement.setString(3, comment.getText());
+                statement.setString(4, comment.getUserName());
+                statement.setLong(5, pending.getNewsId());
+                statement.setTimestamp(6, lastModified);
+            });
+            Map<Long, List<PendingComment>> byNews = rows.stream().collect(groupingBy(PendingComment::getNewsId));
+            byNews.forEach((newsId, comments) -> newsRepository.addComments(newsId, comments.size(),
+                    comments.stream().map(pending -> pending.getComment().getDate()).max(LocalDateTime::compareTo).get()));
+            byNews.keySet().forEach(newsId -> cacheInvalidator.commentChanged(newsId, null));
+            trendingNews.ifPresent(trending -> byNews.forEach((newsId, comments) -> trending.commentsAdded(newsId,
+                    comments.stream().map(pending -> pending.getComment().getDate()).collect(toList()))));
+            return new BatchWritten(rows.size(), newsDeleted);
+        });
+        return written == null ? new BatchWritten(0, 0) : written;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BatchWritten {
+
+        private final int inserted;
+
+        /**
+         * comments not written because their news has been deleted since they were accepted
+         */
+        private final int newsDeleted;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.springboot.task.writebehind;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static com.example.springboot.task.util.UtilConstants.COMMENTS_ID_ALLOCATION_SIZE;
+
+/**
+ * Hands out comment ids before the comments are written, in blocks taken from comments_id_seq the same way
+ * as the pooled optimizer of Hibernate does for the Comment entity, so both never hand out the same id.
+ * A comment keeps its id when it is replayed from the journal, which makes writing it again harmless.
+ */
+public class CommentIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String nextValueSql;
+
+    private long next;
+
+    private long last = -1;
+
+    /**
+     * @param jdbcTemplate  access to the sequence
+     * @param nextValueSql  statement returning the next value of comments_id_seq in the dialect of the database
+     */
+    public CommentIdAllocator(JdbcTemplate jdbcTemplate, String nextValueSql) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = nextValueSql;
+    }
+
+    /**
+     * @return unused comment id, a query is made once per {@link com.example.springboot.task.util.UtilConstants#COMMENTS_ID_ALLOCATION_SIZE} ids
+     */
+    public synchronized long nextId() {
+        if (next > last) {
+            long value = nextValue();
+            if (value < COMMENTS_ID_ALLOCATION_SIZE) {
+                // the first value of a new sequence, the block below it would start below 1
+                value = nextValue();
+            }
+            last = value;
+            next = value - COMMENTS_ID_ALLOCATION_SIZE + 1;
+        }
+        return next++;
+    }
+
+    private long nextValue() {
+        Long value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+        if (value == null) {
+            throw new IllegalStateException("No value returned by " + nextValueSql);
+        }
+        return value;
+    }
+}
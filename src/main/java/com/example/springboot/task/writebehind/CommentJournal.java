@@ -0,0 +1,200 @@
+package com.example.springboot.task.writebehind;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of accepted comments, one JSON object per line, and a checkpoint file holding
+ * the seq up to which every comment has been written to the database.
+ * A line torn by a crash is cut off when the journal is opened again.
+ */
+public class CommentJournal implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommentJournal.class);
+
+    private static final String JOURNAL_FILE = "comments.journal";
+    private static final String CHECKPOINT_FILE = "comments.checkpoint";
+
+    private final Path directory;
+
+    private final Path journalFile;
+
+    private final Path checkpointFile;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean fsync;
+
+    private final long compactSize;
+
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+
+    /**
+     * bytes written, guarded by this
+     */
+    private volatile long size;
+
+    /**
+     * guarded by this
+     */
+    private long lastSeq;
+
+    /**
+     * guarded by this
+     */
+    private long checkpointSeq;
+
+    /**
+     * bytes known to be on disk, guarded by syncLock
+     */
+    private long syncedSize;
+
+    public CommentJournal(Path directory, ObjectMapper objectMapper, boolean fsync, long compactSize) {
+        this.directory = directory;
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        this.compactSize = compactSize;
+    }
+
+    /**
+     * Open the journal for appending
+     *
+     * @return comments accepted before the restart and not yet written to the database, in the order of acceptance
+     * @throws IOException if the journal cannot be read or opened
+     */
+    public synchronized List<PendingComment> open() throws IOException {
+        Files.createDirectories(directory);
+        checkpointSeq = Files.exists(checkpointFile)
+                ? Long.parseLong(new String(Files.readAllBytes(checkpointFile), StandardCharsets.US_ASCII).trim())
+                : 0;
+        lastSeq = checkpointSeq;
+        List<PendingComment> pending = new ArrayList<>();
+        long validSize = 0;
+        if (Files.exists(journalFile)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(journalFile))) {
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                int b;
+                while ((b = in.read()) != -1) {
+                    if (b != '\n') {
+                        line.write(b);
+                        continue;
+                    }
+                    PendingComment record = objectMapper.readValue(line.toByteArray(), PendingComment.class);
+                    validSize += line.size() + 1;
+                    line.reset();
+                    lastSeq = Math.max(lastSeq, record.getSeq());
+                    if (record.getSeq() > checkpointSeq) {
+                        pending.add(record);
+                    }
+                }
+                if (line.size() > 0) {
+                    LOGGER.warn("Cut off {} bytes of an incomplete record at the end of {}", line.size(), journalFile);
+                }
+            }
+        }
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validSize);
+        channel.position(validSize);
+        size = validSize;
+        syncedSize = 0;
+        return pending;
+    }
+
+    /**
+     * Write the comment to the end of the journal, it is durable only after {@link #sync()}
+     *
+     * @param newsId  news of the comment
+     * @param comment comment with its id
+     * @return journal record of the comment
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized PendingComment append(Long newsId, CommentDto comment) throws IOException {
+        PendingComment record = new PendingComment(lastSeq + 1, newsId, comment, System.currentTimeMillis());
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n');
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        lastSeq = record.getSeq();
+        size += buffer.limit();
+        return record;
+    }
+
+    /**
+     * Force everything appended so far to disk. A caller finding its bytes already forced by a concurrent
+     * call returns at once, so requests arriving together share one fsync.
+     *
+     * @throws IOException if the journal cannot be forced
+     */
+    public void sync() throws IOException {
+        if (!fsync) {
+            return;
+        }
+        long appended = size;
+        synchronized (syncLock) {
+            if (syncedSize >= appended) {
+                return;
+            }
+            long forced = size;
+            channel.force(false);
+            syncedSize = forced;
+        }
+    }
+
+    /**
+     * Record that every comment up to seq has been written to the database, then truncate the journal
+     * if it is large and holds nothing else
+     *
+     * @param seq seq of the last written comment
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void checkpoint(long seq) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel checkpoint = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            checkpoint.write(ByteBuffer.wrap(Long.toString(seq).getBytes(StandardCharsets.US_ASCII)));
+            checkpoint.force(false);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (this) {
+            checkpointSeq = Math.max(checkpointSeq, seq);
+            if (lastSeq == checkpointSeq && size >= compactSize) {
+                channel.truncate(0);
+                channel.position(0);
+                size = 0;
+                synchronized (syncLock) {
+                    syncedSize = 0;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.springboot.task.writebehind;
+
+import com.example.springboot.task.config.WriteBehindProperties;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.exception.InvalidCommentException;
+import com.example.springboot.task.exception.NewsNotFoundException;
+import com.example.springboot.task.exception.WriteBehindQueueFullException;
+import com.example.springboot.task.exception.WriteBehindUnavailableException;
+import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.validator.CommentDtoValidator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.springboot.task.exception.ExceptionMessage.INVALID_COMMENT;
+import static com.example.springboot.task.exception.ExceptionMessage.NEWS_NOT_FOUND;
+import static com.example.springboot.task.exception.ExceptionMessage.WRITE_BEHIND_QUEUE_FULL;
+import static com.example.springboot.task.exception.ExceptionMessage.WRITE_BEHIND_UNAVAILABLE;
+
+/**
+ * Write-behind creation of comments. A comment is validated, given its id, appended to the journal and queued;
+ * the request is answered once the journal is on disk, without a database transaction. A single writer thread
+ * takes the queued comments in batches of up to batch-size, waiting at most flush-interval for a batch to fill,
+ * and writes every batch in one transaction, so many comments share one commit.
+ * <p>
+ * Comments left in the journal by a crash or by a shutdown with an unreachable database are queued again on start.
+ * <p>
+ * A journal which could not be written or forced to disk cannot be trusted any more: from then on no comment
+ * is accepted and {@link #isJournalWritable()} reports it to the health endpoint, the comments already queued
+ * are still written.
+ */
+public class CommentWriteBehindQueue implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommentWriteBehindQueue.class);
+
+    private static final long RETRY_BACKOFF_MIN_MILLIS = 100;
+    private static final long RETRY_BACKOFF_MAX_MILLIS = 10_000;
+
+    private final WriteBehindProperties properties;
+
+    private final CommentJournal journal;
+
+    private final CommentIdAllocator idAllocator;
+
+    private final CommentBatchWriter batchWriter;
+
+    private final CommentDtoValidator validator;
+
+    private final NewsRepository newsRepository;
+
+    private final BlockingQueue<PendingComment> queue = new LinkedBlockingQueue<>();
+
+    private final Object appendLock = new Object();
+
+    private final Cache<Long, Boolean> existingNews;
+
+    private final Counter rejected;
+
+    private final Counter dropped;
+
+    private final Counter droppedNewsDeleted;
+
+    private final Counter failures;
+
+    private final Timer flushTimer;
+
+    private final DistributionSummary batchSizes;
+
+    /**
+     * free places of the queue, comments being written still hold theirs
+     */
+    private volatile Semaphore capacity;
+
+    private volatile boolean running;
+
+    private volatile boolean journalWritable = true;
+
+    private Thread writer;
+
+    public CommentWriteBehindQueue(WriteBehindProperties properties, CommentJournal journal, CommentIdAllocator idAllocator,
+                                   CommentBatchWriter batchWriter, CommentDtoValidator validator,
+                                   NewsRepository newsRepository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.journal = journal;
+        this.idAllocator = idAllocator;
+        this.batchWriter = batchWriter;
+        this.validator = validator;
+        this.newsRepository = newsRepository;
+        this.existingNews = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(properties.getNewsExistsTtl()).build();
+        this.rejected = meterRegistry.counter("comments.write_behind.rejected");
+        this.dropped = meterRegistry.counter("comments.write_behind.dropped", "reason", "rejected");
+        this.droppedNewsDeleted = meterRegistry.counter("comments.write_behind.dropped", "reason", "news-deleted");
+        this.failures = meterRegistry.counter("comments.write_behind.flush.failures");
+        this.flushTimer = meterRegistry.timer("comments.write_behind.flush");
+        this.batchSizes = meterRegistry.summary("comments.write_behind.batch.size");
+        Gauge.builder("comments.write_behind.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        TimeGauge.builder("comments.write_behind.lag", this, TimeUnit.MILLISECONDS, CommentWriteBehindQueue::lagMillis)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accept a comment for writing
+     *
+     * @param newsId     for check news
+     * @param commentDto object comments to save
+     * @return accepted comment with the id it will be stored with
+     * @throws InvalidCommentException       if the comment violates a constraint of the comments table
+     * @throws NewsNotFoundException         if there is no news with this id
+     * @throws WriteBehindQueueFullException if the writer is too far behind
+     * @throws WriteBehindUnavailableException if the journal has failed before
+     */
+    public CommentDto accept(Long newsId, CommentDto commentDto) {
+        List<String> errors = validator.validate(commentDto);
+        if (!errors.isEmpty()) {
+            throw new InvalidCommentException(INVALID_COMMENT + String.join(", ", errors));
+        }
+        checkNewsExists(newsId);
+        if (!journalWritable) {
+            rejected.increment();
+            throw new WriteBehindUnavailableException(WRITE_BEHIND_UNAVAILABLE + properties.getJournalDirectory());
+        }
+        if (!running || !capacity.tryAcquire()) {
+            rejected.increment();
+            throw new WriteBehindQueueFullException(WRITE_BEHIND_QUEUE_FULL + properties.getQueueCapacity());
+        }
+        CommentDto accepted = new CommentDto(idAllocator.nextId(), commentDto.getDate(), commentDto.getText(),
+                commentDto.getUserName());
+        accepted.setVersion(0L);
+        try {
+            synchronized (appendLock) {
+                // queued in the order of the journal, so the checkpoint never passes a comment not yet written
+                queue.add(journal.append(newsId, accepted));
+            }
+        } catch (IOException e) {
+            // a partly written record would corrupt the records appended after it
+            journalWritable = false;
+            capacity.release();
+            throw new UncheckedIOException("Comment could not be appended to the journal", e);
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            // the comment is queued and will be written, only a crash before that would lose it,
+            // so it is answered as accepted and the comments after it are refused
+            journalWritable = false;
+            LOGGER.error("Comment journal could not be forced to disk, comments are no longer accepted", e);
+        }
+        return accepted;
+    }
+
+    @Override
+    public void start() {
+        List<PendingComment> pending;
+        try {
+            pending = journal.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Comment journal could not be opened in " + properties.getJournalDirectory(), e);
+        }
+        if (!pending.isEmpty()) {
+            LOGGER.info("Replaying {} comments from the journal", pending.size());
+        }
+        queue.addAll(pending);
+        capacity = new Semaphore(properties.getQueueCapacity() - pending.size());
+        running = true;
+        writer = new Thread(this::writeLoop, "comment-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop accepting comments and write the queued ones within shutdown-timeout
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            LOGGER.warn("{} comments are left in the journal and will be written on the next start", queue.size());
+            writer.interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOGGER.warn("Comment journal could not be closed", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return false once the journal could not be written or forced to disk, comments are refused from then on
+     */
+    public boolean isJournalWritable() {
+        return journalWritable;
+    }
+
+    /**
+     * Started before and stopped after the web server, so no request finds the queue stopped
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    private void checkNewsExists(Long newsId) {
+        if (existingNews.getIfPresent(newsId) != null) {
+            return;
+        }
+        if (!newsRepository.existsById(newsId)) {
+            throw new NewsNotFoundException(NEWS_NOT_FOUND + newsId);
+        }
+        existingNews.put(newsId, Boolean.TRUE);
+    }
+
+    private void writeLoop() {
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<PendingComment> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < properties.getBatchSize()) {
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PendingComment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (!flush(batch)) {
+                    return;
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the batch, retrying while the database is unavailable
+     *
+     * @return false if the writer is stopping and the batch is left in the journal
+     */
+    private boolean flush(List<PendingComment> batch) throws InterruptedException {
+        long backoff = RETRY_BACKOFF_MIN_MILLIS;
+        long start = System.nanoTime();
+        while (true) {
+            try {
+                writeDroppingRejected(batch);
+                break;
+            } catch (DataAccessException e) {
+                failures.increment();
+                if (!running) {
+                    return false;
+                }
+                LOGGER.warn("Writing {} comments failed, retrying in {} ms: {}", batch.size(), backoff, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff = Math.min(backoff * 2, RETRY_BACKOFF_MAX_MILLIS);
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        try {
+            journal.checkpoint(batch.get(batch.size() - 1).getSeq());
+        } catch (IOException e) {
+            // the batch is written again after a restart and then skipped by its ids
+            LOGGER.error("Journal checkpoint could not be written", e);
+        }
+        capacity.release(batch.size());
+        return true;
+    }
+
+    /**
+     * A comment breaking a constraint fails its whole batch, then the comments are written one by one
+     * and only the rejected ones are dropped. Drops are counted by reason once their transaction has committed.
+     */
+    private void writeDroppingRejected(List<PendingComment> batch) {
+        try {
+            droppedNewsDeleted.increment(batchWriter.write(batch).getNewsDeleted());
+        } catch (DataIntegrityViolationException e) {
+            for (PendingComment pending : batch) {
+                try {
+                    droppedNewsDeleted.increment(batchWriter.write(Collections.singletonList(pending)).getNewsDeleted());
+                } catch (DataIntegrityViolationException rowError) {
+                    dropped.increment();
+                    LOGGER.error("Dropped comment {} of news {}: {}", pending.getComment().getId(), pending.getNewsId(),
+                            rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private double lagMillis() {
+        PendingComment oldest = queue.peek();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.getAcceptedAt();
+    }
+}
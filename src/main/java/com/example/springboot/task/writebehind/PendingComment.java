@@ -0,0 +1,32 @@
+package com.example.springboot.task.writebehind;
+
+import com.example.springboot.task.dto.CommentDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Comment accepted in write-behind mode, one line of the journal
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PendingComment {
+
+    /**
+     * position in the journal, every comment up to the checkpoint has been written to the database
+     */
+    private long seq;
+
+    private Long newsId;
+
+    /**
+     * comment with the id it will be stored with
+     */
+    private CommentDto comment;
+
+    /**
+     * epoch milliseconds
+     */
+    private long acceptedAt;
+}
@@ -0,0 +1,2 @@
+-- comments of one user across all news, newest first, read in order for keyset pages
+CREATE INDEX IF NOT EXISTS comments_user_name_date_id_idx ON comments (user_name, date DESC, id DESC);
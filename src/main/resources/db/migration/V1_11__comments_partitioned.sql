@@ -0,0 +1,127 @@
+-- comments are partitioned by month of their date; the primary key of a partitioned table has to contain the date.
+-- The database no longer rejects a second row with the same id: ids are unique only because they all come from
+-- comments_id_seq, a writer which may repeat an insert (the write-behind replay) must look the id up without the date
+CREATE TABLE IF NOT EXISTS comments_partitioned (
+    id            BIGINT       NOT NULL DEFAULT nextval('comments_id_seq'),
+    date          TIMESTAMP    NOT NULL,
+    text          VARCHAR(1000),
+    user_name     VARCHAR(128) NOT NULL,
+    news_id       BIGINT       NOT NULL,
+    version       BIGINT       NOT NULL DEFAULT 0,
+    last_modified TIMESTAMP    NOT NULL DEFAULT timezone('utc', now()),
+    CONSTRAINT comments_partitioned_pkey PRIMARY KEY (id, date),
+    CONSTRAINT comments_partitioned_news_id_fkey FOREIGN KEY (news_id) REFERENCES news (id) ON DELETE CASCADE
+) PARTITION BY RANGE (date);
+
+CREATE INDEX IF NOT EXISTS comments_partitioned_news_id_date_id_idx ON comments_partitioned (news_id, date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS comments_partitioned_news_id_last_modified_idx ON comments_partitioned (news_id, last_modified);
+CREATE INDEX IF NOT EXISTS comments_partitioned_user_name_date_id_idx ON comments_partitioned (user_name, date DESC, id DESC);
+
+-- dates of months without a partition, e.g. far in the past or the future, are kept here until their month gets one
+CREATE TABLE IF NOT EXISTS comments_default PARTITION OF comments_partitioned DEFAULT;
+
+-- partition of the month of the given day, comments of that month are moved there from the default partition.
+-- The partition is filled before it is attached, which only locks the parent against schema changes, not against writes
+CREATE OR REPLACE FUNCTION create_comment_partition(day DATE) RETURNS BOOLEAN AS
+$$
+DECLARE
+    parent    TEXT := CASE WHEN to_regclass('comments_partitioned') IS NULL THEN 'comments' ELSE 'comments_partitioned' END;
+    first_day DATE := date_trunc('month', day)::DATE;
+    next_day  DATE := (date_trunc('month', day) + INTERVAL '1 month')::DATE;
+    partition TEXT := 'comments_p' || to_char(first_day, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', partition, parent);
+    EXECUTE format('WITH moved AS (DELETE FROM comments_default WHERE date >= %L AND date < %L RETURNING *) ' ||
+                   'INSERT INTO %I SELECT * FROM moved', first_day, next_day, partition);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', parent, partition, first_day, next_day);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- partitions of the current month and the following ones, called on start and periodically by the application
+CREATE OR REPLACE FUNCTION create_comment_partitions(months_ahead INTEGER) RETURNS INTEGER AS
+$$
+DECLARE
+    created INTEGER := 0;
+BEGIN
+    FOR month IN 0..months_ahead
+        LOOP
+            IF create_comment_partition((timezone('utc', now()) + make_interval(months => month))::DATE) THEN
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- keeps the partitioned table in step with comments while the existing rows are copied in batches
+CREATE OR REPLACE FUNCTION comments_sync_partitioned() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM comments_partitioned WHERE id = OLD.id AND date = OLD.date;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO comments_partitioned (id, date, text, user_name, news_id, version, last_modified)
+        VALUES (NEW.id, NEW.date, NEW.text, NEW.user_name, NEW.news_id, NEW.version, NEW.last_modified)
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- replaces comments with the partitioned table once every row has been copied, the old table is kept as comments_legacy
+CREATE OR REPLACE FUNCTION switch_to_partitioned_comments() RETURNS VOID AS
+$$
+BEGIN
+    LOCK TABLE comments IN ACCESS EXCLUSIVE MODE;
+    DROP TRIGGER IF EXISTS comments_sync_partitioned ON comments;
+
+    ALTER TABLE comments RENAME TO comments_legacy;
+    ALTER TABLE comments_legacy RENAME CONSTRAINT comments_pkey TO comments_legacy_pkey;
+    ALTER TABLE comments_legacy RENAME CONSTRAINT comments_news_id_fkey TO comments_legacy_news_id_fkey;
+    ALTER INDEX comments_news_id_date_id_idx RENAME TO comments_legacy_news_id_date_id_idx;
+    ALTER INDEX comments_news_id_last_modified_idx RENAME TO comments_legacy_news_id_last_modified_idx;
+    ALTER INDEX comments_user_name_date_id_idx RENAME TO comments_legacy_user_name_date_id_idx;
+    ALTER TABLE comments_legacy ALTER COLUMN id DROP DEFAULT;
+
+    ALTER TABLE comments_partitioned RENAME TO comments;
+    ALTER TABLE comments RENAME CONSTRAINT comments_partitioned_pkey TO comments_pkey;
+    ALTER TABLE comments RENAME CONSTRAINT comments_partitioned_news_id_fkey TO comments_news_id_fkey;
+    ALTER INDEX comments_partitioned_news_id_date_id_idx RENAME TO comments_news_id_date_id_idx;
+    ALTER INDEX comments_partitioned_news_id_last_modified_idx RENAME TO comments_news_id_last_modified_idx;
+    ALTER INDEX comments_partitioned_user_name_date_id_idx RENAME TO comments_user_name_date_id_idx;
+    ALTER SEQUENCE comments_id_seq OWNED BY comments.id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- progress of the batch copy, see CommentPartitionMigration
+CREATE TABLE IF NOT EXISTS comments_partition_copy (
+    last_id  BIGINT NOT NULL,
+    until_id BIGINT
+);
+INSERT INTO comments_partition_copy (last_id) SELECT 0 WHERE NOT EXISTS (SELECT 1 FROM comments_partition_copy);
+
+-- a small table is copied and switched right away in the transaction of the migration, a large one is copied online
+-- by the application (app.partitioning.migrate-existing) while the trigger keeps the copy up to date
+DO
+$$
+BEGIN
+    IF pg_relation_size('comments') < 64 * 1024 * 1024 THEN
+        LOCK TABLE comments IN ACCESS EXCLUSIVE MODE;
+        PERFORM create_comment_partition(month) FROM (SELECT DISTINCT date_trunc('month', date)::DATE AS month FROM comments) months;
+        INSERT INTO comments_partitioned (id, date, text, user_name, news_id, version, last_modified)
+        SELECT id, date, text, user_name, news_id, version, last_modified FROM comments;
+        PERFORM switch_to_partitioned_comments();
+        DROP TABLE comments_legacy;
+    ELSE
+        CREATE TRIGGER comments_sync_partitioned
+            AFTER INSERT OR UPDATE OR DELETE ON comments
+            FOR EACH ROW EXECUTE FUNCTION comments_sync_partitioned();
+    END IF;
+    PERFORM create_comment_partitions(3);
+END;
+$$;
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS news_date_id_idx ON news (date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS comments_news_id_date_id_idx ON comments (news_id, date DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Hibernate allocates comment ids in blocks of 50 (pooled optimizer), the step of the sequence must match
+ALTER SEQUENCE comments_id_seq INCREMENT BY 50;
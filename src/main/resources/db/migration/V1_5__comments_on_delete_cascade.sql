@@ -0,0 +1,4 @@
+-- comments of a deleted news are removed by the database in the same statement
+ALTER TABLE comments
+    DROP CONSTRAINT comments_news_id_fkey,
+    ADD CONSTRAINT comments_news_id_fkey FOREIGN KEY (news_id) REFERENCES news (id) ON DELETE CASCADE;
@@ -0,0 +1,6 @@
+ALTER TABLE news
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+                             setweight(to_tsvector('english', coalesce(text, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS news_search_vector_idx ON news USING GIN (search_vector);
@@ -0,0 +1,10 @@
+ALTER TABLE news
+    ADD COLUMN IF NOT EXISTS version       BIGINT    NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP NOT NULL DEFAULT timezone('utc', now());
+
+ALTER TABLE comments
+    ADD COLUMN IF NOT EXISTS version       BIGINT    NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP NOT NULL DEFAULT timezone('utc', now());
+
+-- count and max(last_modified) of the comments of one news, the validator of the comment list, from the index only
+CREATE INDEX IF NOT EXISTS comments_news_id_last_modified_idx ON comments (news_id, last_modified);
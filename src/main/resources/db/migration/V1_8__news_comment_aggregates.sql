@@ -0,0 +1,13 @@
+ALTER TABLE news
+    ADD COLUMN IF NOT EXISTS comment_count   INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS last_comment_at TIMESTAMP;
+
+UPDATE news n
+SET comment_count   = c.comment_count,
+    last_comment_at = c.last_comment_at
+FROM (SELECT news_id, count(*) AS comment_count, max(date) AS last_comment_at FROM comments GROUP BY news_id) c
+WHERE c.news_id = n.id;
+
+-- "most discussed" and "recently active" pages are read from these indexes in order
+CREATE INDEX IF NOT EXISTS news_comment_count_id_idx ON news (comment_count DESC, id DESC);
+CREATE INDEX IF NOT EXISTS news_last_comment_at_id_idx ON news (last_comment_at DESC NULLS LAST, id DESC);
@@ -0,0 +1,39 @@
+-- bulk imports: one row per uploaded file, the checkpoint is committed together with every chunk
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id                BIGSERIAL PRIMARY KEY,
+    kind              VARCHAR(16)   NOT NULL,
+    format            VARCHAR(16)   NOT NULL,
+    status            VARCHAR(16)   NOT NULL,
+    file_path         VARCHAR(1024) NOT NULL,
+    file_size         BIGINT        NOT NULL,
+    checkpoint_offset BIGINT        NOT NULL DEFAULT 0,
+    checkpoint_line   BIGINT        NOT NULL DEFAULT 0,
+    imported          BIGINT        NOT NULL DEFAULT 0,
+    rejected          BIGINT        NOT NULL DEFAULT 0,
+    rejections        TEXT,
+    error             TEXT,
+    created_at        TIMESTAMP     NOT NULL,
+    updated_at        TIMESTAMP     NOT NULL,
+    finished_at       TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS import_jobs_status_idx ON import_jobs (status);
+
+-- rows of the chunk being imported, COPY target; they live for one transaction only, so they need no WAL
+CREATE UNLOGGED TABLE IF NOT EXISTS import_news_staging (
+    job_id BIGINT       NOT NULL,
+    line   BIGINT       NOT NULL,
+    date   TIMESTAMP    NOT NULL,
+    title  VARCHAR(128) NOT NULL,
+    text   TEXT         NOT NULL
+);
+
+CREATE UNLOGGED TABLE IF NOT EXISTS import_comments_staging (
+    job_id    BIGINT        NOT NULL,
+    line      BIGINT        NOT NULL,
+    id        BIGINT        NOT NULL,
+    date      TIMESTAMP     NOT NULL,
+    text      VARCHAR(1000),
+    user_name VARCHAR(128)  NOT NULL,
+    news_id   BIGINT        NOT NULL
+);
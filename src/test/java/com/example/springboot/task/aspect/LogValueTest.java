@@ -0,0 +1,45 @@
+package com.example.springboot.task.aspect;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogValueTest {
+
+    @Test
+    void testShortValueIsWrittenWhole() {
+        assertThat(LogValue.of(new Object[]{1L, "text", null}, 32)).hasToString("[1, text, null]");
+    }
+
+    @Test
+    void testLongValueIsCut() {
+        assertThat(LogValue.of("abcdefghij", 4)).hasToString("abcd...(cut at 4 chars)");
+    }
+
+    @Test
+    void testValueOfExactlyMaxLengthIsNotCut() {
+        assertThat(LogValue.of("abcd", 4)).hasToString("abcd");
+    }
+
+    @Test
+    void testElementsAfterLimitAreNotRendered() {
+        Object notRendered = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("rendered after the limit");
+            }
+        };
+
+        assertThat(LogValue.of(new Object[]{"abcdefghij", notRendered}, 6)).hasToString("[abcde...(cut at 6 chars)");
+    }
+
+    @Test
+    void testCollectionsAreSummarized() {
+        assertThat(LogValue.of(ResponseEntity.ok(Optional.of(Arrays.asList(1, 2, 3))), 64))
+                .hasToString("200 ArrayList(size=3)");
+    }
+}
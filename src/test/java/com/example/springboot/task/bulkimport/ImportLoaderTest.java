@@ -0,0 +1,41 @@
+package com.example.springboot.task.bulkimport;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportLoaderTest {
+
+    @Test
+    void testRowQuotesTextAndWritesNumbersRaw() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        ImportLoader.writeRow(writer, 1L, 42, "a, \"b\"", LocalDateTime.of(2021, 8, 1, 10, 15, 30));
+
+        assertThat(writer).hasToString("1,42,\"a, \"\"b\"\"\",\"2021-08-01T10:15:30\"\n");
+    }
+
+    @Test
+    void testNullIsUnquotedAndEmptyTextIsQuoted() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        ImportLoader.writeRow(writer, null, "", null);
+
+        assertThat(writer).hasToString(",\"\",\n");
+    }
+
+    @Test
+    void testRowIsReadBackUnchanged() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        ImportLoader.writeRow(writer, 3L, "two\nlines, \"quoted\"", "", null);
+
+        String row = writer.toString();
+        assertThat(ImportRecordParser.splitCsv(row.substring(0, row.length() - 1)))
+                .containsExactly("3", "two\nlines, \"quoted\"", "", null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.springboot.task.bulkimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportRecordParserTest {
+
+    @Test
+    void testQuotedValueKeepsCommasAndLineBreaks() {
+        assertThat(ImportRecordParser.splitCsv("1,\"a, b\",\"two\nlines\""))
+                .containsExactly("1", "a, b", "two\nlines");
+    }
+
+    @Test
+    void testDoubledQuoteIsLiteralQuote() {
+        assertThat(ImportRecordParser.splitCsv("\"say \"\"hi\"\"\",\"\"\"\"")).containsExactly("say \"hi\"", "\"");
+    }
+
+    @Test
+    void testEmptyValues() {
+        assertThat(ImportRecordParser.splitCsv(",\"\",")).containsExactly(null, "", null);
+        assertThat(ImportRecordParser.splitCsv("")).containsExactly((String) null);
+    }
+
+    @Test
+    void testUnclosedQuoteIsRejected() {
+        assertThatThrownBy(() -> ImportRecordParser.splitCsv("1,\"open"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("quote is not closed");
+    }
+
+    @Test
+    void testCsvCommentWithQuotedText() {
+        ImportRecordParser parser = new ImportRecordParser(ImportKind.COMMENTS, ImportFormat.CSV, new ObjectMapper(),
+                "newsId,date,text,userName");
+
+        ImportRecord record = parser.parse(2, "7,2021-08-01T10:15:30,\"first, \"\"quoted\"\"\nsecond line\",");
+
+        assertThat(record.getNewsId()).isEqualTo(7L);
+        assertThat(record.getComment().getDate()).isEqualTo(LocalDateTime.of(2021, 8, 1, 10, 15, 30));
+        assertThat(record.getComment().getText()).isEqualTo("first, \"quoted\"\nsecond line");
+        assertThat(record.getComment().getUserName()).isNull();
+    }
+}
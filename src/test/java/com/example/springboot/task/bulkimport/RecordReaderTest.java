@@ -0,0 +1,55 @@
+package com.example.springboot.task.bulkimport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testQuotedLineBreakDoesNotEndCsvRecord() throws IOException {
+        Path file = write("newsId,text\r\n1,\"two\nlines\"\r\n2,one line\n");
+
+        try (RecordReader reader = new RecordReader(file, 0, 0, true)) {
+            assertThat(reader.next()).isEqualTo("newsId,text");
+            assertThat(reader.next()).isEqualTo("1,\"two\nlines\"");
+            assertThat(reader.recordLine()).isEqualTo(2);
+            assertThat(reader.next()).isEqualTo("2,one line");
+            assertThat(reader.recordLine()).isEqualTo(4);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void testReadingResumesFromCheckpoint() throws IOException {
+        Path file = write("{\"n\":1}\n{\"n\":2}\n{\"n\":3}");
+        long offset;
+        long line;
+        try (RecordReader reader = new RecordReader(file, 0, 0, false)) {
+            reader.next();
+            reader.next();
+            offset = reader.offset();
+            line = reader.line();
+        }
+
+        try (RecordReader reader = new RecordReader(file, offset, line, false)) {
+            assertThat(reader.next()).isEqualTo("{\"n\":3}");
+            assertThat(reader.recordLine()).isEqualTo(3);
+            assertThat(reader.offset()).isEqualTo(Files.size(file));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("import"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.springboot.task.cache;
+
+import com.example.springboot.task.config.CacheConfig;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.mapper.CommentMapper;
+import com.example.springboot.task.repository.CommentRepository;
+import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.service.CommentService;
+import com.example.springboot.task.service.impl.CommentServiceImpl;
+import com.example.springboot.task.validator.CommentDtoValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.springboot.task.util.CacheNames.COMMENTS;
+import static com.example.springboot.task.util.CacheNames.COMMENT_PAGES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+class CacheInvalidatorTest {
+
+    private static final Long NEWS_ID = 1L;
+    private static final Long OTHER_NEWS_ID = 11L;
+    private static final Long COMMENT_ID = 5L;
+
+    @Configuration
+    @Import({CacheConfig.class, CacheInvalidator.class})
+    static class Config {
+
+        @Bean
+        CommentRepository commentRepository() {
+            return Mockito.mock(CommentRepository.class);
+        }
+
+        @Bean
+        NewsRepository newsRepository() {
+            return Mockito.mock(NewsRepository.class);
+        }
+
+        @Bean
+        CommentService commentService(CommentRepository commentRepository, NewsRepository newsRepository,
+                                      CacheInvalidator cacheInvalidator) {
+            return new CommentServiceImpl(commentRepository, Mockito.mock(CommentMapper.class), newsRepository,
+                    cacheInvalidator, Mockito.mock(CommentDtoValidator.class), Optional.empty());
+        }
+    }
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final CommentDto comment = new CommentDto(COMMENT_ID, LocalDateTime.of(2021, 1, 1, 12, 0), "Comment text", "Ivan");
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        Mockito.reset(commentRepository);
+    }
+
+    @Test
+    void testSecondReadIsServedFromCache() {
+        when(commentRepository.findByNewsIdAndId(NEWS_ID, COMMENT_ID)).thenReturn(Optional.of(comment));
+        when(commentRepository.findByNewsId(eq(NEWS_ID), any(Pageable.class))).thenReturn(Collections.singletonList(comment));
+
+        assertThat(commentService.findById(NEWS_ID, COMMENT_ID)).contains(comment);
+        assertThat(commentService.findById(NEWS_ID, COMMENT_ID)).contains(comment);
+        assertThat(commentService.findAll(NEWS_ID, 0, 10)).containsExactly(comment);
+        assertThat(commentService.findAll(NEWS_ID, 0, 10)).containsExactly(comment);
+
+        verify(commentRepository, times(1)).findByNewsIdAndId(NEWS_ID, COMMENT_ID);
+        verify(commentRepository, times(1)).findByNewsId(eq(NEWS_ID), any(Pageable.class));
+    }
+
+    @Test
+    void testCommentChangeEvictsPagesOfTheNewsOnly() {
+        Cache pages = cacheManager.getCache(COMMENT_PAGES);
+        Cache comments = cacheManager.getCache(COMMENTS);
+        List<CommentDto> page = Collections.singletonList(comment);
+        pages.put(NEWS_ID + ":0:10", page);
+        pages.put(NEWS_ID + ":1:10", page);
+        pages.put(OTHER_NEWS_ID + ":0:10", page);
+        comments.put(NEWS_ID + ":" + COMMENT_ID, comment);
+
+        cacheInvalidator.commentChanged(NEWS_ID, COMMENT_ID);
+
+        assertThat(pages.get(NEWS_ID + ":0:10")).isNull();
+        assertThat(pages.get(NEWS_ID + ":1:10")).isNull();
+        assertThat(comments.get(NEWS_ID + ":" + COMMENT_ID)).isNull();
+        assertThat(pages.get(OTHER_NEWS_ID + ":0:10")).isNotNull();
+    }
+
+    @Test
+    void testPageReadDuringTransactionIsEvictedAfterCommit() {
+        Cache pages = cacheManager.getCache(COMMENT_PAGES);
+        List<CommentDto> page = Collections.singletonList(comment);
+        pages.put(NEWS_ID + ":0:10", page);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cacheInvalidator.commentChanged(NEWS_ID, null);
+            assertThat(pages.get(NEWS_ID + ":0:10")).isNull();
+
+            // a concurrent read loaded the page before the write committed
+            pages.put(NEWS_ID + ":0:10", page);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+
+            assertThat(pages.get(NEWS_ID + ":0:10")).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.springboot.task.concurrency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadShedderTest {
+
+    private static final Duration LATENCY_THRESHOLD = Duration.ofMillis(100);
+    private static final int PENDING_THRESHOLD = 10;
+
+    private final AtomicInteger pendingConnections = new AtomicInteger();
+
+    private final LoadShedder loadShedder = new LoadShedder(LATENCY_THRESHOLD, PENDING_THRESHOLD, pendingConnections::get);
+
+    @Test
+    void testNothingIsShedBelowThresholds() {
+        for (int i = 0; i < 100; i++) {
+            loadShedder.record(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        pendingConnections.set(PENDING_THRESHOLD);
+
+        assertThat(loadShedder.pressure()).isLessThanOrEqualTo(1);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(loadShedder.shouldShed()).isFalse();
+        }
+    }
+
+    @Test
+    void testMostWritesAreShedAtTwiceTheLatencyThreshold() {
+        for (int i = 0; i < 200; i++) {
+            loadShedder.record(TimeUnit.MILLISECONDS.toNanos(300));
+        }
+
+        assertThat(loadShedder.pressure()).isGreaterThan(2);
+        int shed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (loadShedder.shouldShed()) {
+                shed++;
+            }
+        }
+        // some writes always get through
+        assertThat(shed).isBetween(900, 990);
+    }
+
+    @Test
+    void testPendingConnectionsRaisePressure() {
+        pendingConnections.set(PENDING_THRESHOLD * 3 / 2);
+
+        assertThat(loadShedder.pressure()).isEqualTo(1.5);
+    }
+
+    @Test
+    void testRejectedRequestsAreNotRecorded() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        loadShedder.preHandle(request, new MockHttpServletResponse(), null);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        rejected.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        loadShedder.afterCompletion(request, rejected, null, null);
+        assertThat(loadShedder.latencyAverageMillis()).isZero();
+
+        loadShedder.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertThat(loadShedder.latencyAverageMillis()).isPositive();
+    }
+}
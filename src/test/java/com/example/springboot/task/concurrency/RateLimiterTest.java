@@ -0,0 +1,81 @@
+package com.example.springboot.task.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final String CLIENT = "10.0.0.1";
+
+    @Test
+    void testBurstIsAllowedThenRateApplies() {
+        RateLimiter limiter = new RateLimiter(10, 3, 100);
+
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+
+        long wait = limiter.tryAcquire(CLIENT);
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void testTokenIsAvailableAfterWait() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20, 1, 100);
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+        long wait = limiter.tryAcquire(CLIENT);
+        assertThat(wait).isPositive();
+
+        TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+    }
+
+    @Test
+    void testKeysHaveOwnBuckets() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100);
+
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+        assertThat(limiter.tryAcquire(CLIENT)).isPositive();
+        assertThat(limiter.tryAcquire("10.0.0.2")).isZero();
+    }
+
+    @Test
+    void testReleasedTokenCanBeTakenAgain() {
+        RateLimiter limiter = new RateLimiter(1, 2, 100);
+
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+        assertThat(limiter.tryAcquire(CLIENT)).isPositive();
+
+        limiter.release(CLIENT);
+
+        assertThat(limiter.tryAcquire(CLIENT)).isZero();
+        assertThat(limiter.tryAcquire(CLIENT)).isPositive();
+    }
+
+    @Test
+    void testConcurrentAcquiresDoNotExceedBurst() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(0.001, 50, 100);
+        AtomicInteger acquired = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (limiter.tryAcquire(CLIENT) == 0) {
+                    acquired.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(Duration.ofSeconds(10).toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+
+        assertThat(acquired.get()).isEqualTo(50);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.springboot.task.concurrency;
+
+import com.example.springboot.task.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WriteAdmissionTest {
+
+    private static final Long NEWS_ID = 1L;
+    private static final String USER_NAME = "Ivan";
+
+    private final RateLimiter clientLimiter = new RateLimiter(0.001, 2, 100);
+    private final RateLimiter userLimiter = new RateLimiter(0.001, 2, 100);
+    private final RateLimiter newsLimiter = new RateLimiter(0.001, 2, 100);
+    private final RateLimiter globalLimiter = new RateLimiter(0.001, 1, 100);
+
+    private final WriteAdmission admission = new WriteAdmission(clientLimiter, userLimiter, newsLimiter, globalLimiter,
+            new LoadShedder(Duration.ofSeconds(1), 10, () -> 0), new SimpleMeterRegistry());
+
+    @Test
+    void testRejectedCommentGivesTokensBack() {
+        admission.admitComment(NEWS_ID, USER_NAME);
+
+        assertThrows(RateLimitExceededException.class, () -> admission.admitComment(NEWS_ID, USER_NAME));
+
+        // one token each was taken by the admitted comment, the rejected one left the second
+        assertThat(clientLimiter.tryAcquire("unknown")).isZero();
+        assertThat(userLimiter.tryAcquire(USER_NAME)).isZero();
+        assertThat(newsLimiter.tryAcquire(NEWS_ID)).isZero();
+    }
+}
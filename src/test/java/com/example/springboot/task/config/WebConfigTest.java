@@ -0,0 +1,97 @@
+package com.example.springboot.task.config;
+
+import com.example.springboot.task.controller.CommentController;
+import com.example.springboot.task.converter.BinaryObjectMappers;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.export.Exporter;
+import com.example.springboot.task.service.CommentService;
+import com.example.springboot.task.util.ResourceVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class WebConfigTest {
+
+    private static final Long NEWS_ID = 1L;
+    private static final Long COMMENT_ID = 5L;
+    private static final String COMMENT_URL = "/news/1/comments/5";
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Mock
+    private CommentService commentService;
+
+    private final CommentDto comment = new CommentDto(COMMENT_ID, LocalDateTime.of(2021, 1, 1, 12, 0), "Comment text", "Ivan");
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        WebConfig webConfig = new WebConfig();
+        ObjectMapper objectMapper = jsonBuilder().build();
+        mockMvc = MockMvcBuilders.standaloneSetup(new CommentController(commentService, new Exporter(objectMapper, 500),
+                        Optional.empty(), Optional.empty()))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper),
+                        webConfig.cborHttpMessageConverter(jsonBuilder()),
+                        webConfig.smileHttpMessageConverter(jsonBuilder()))
+                .build();
+        comment.setVersion(0L);
+        when(commentService.findVersion(NEWS_ID, COMMENT_ID)).thenReturn(Optional.of(new ResourceVersion("v0", -1)));
+        when(commentService.findById(NEWS_ID, COMMENT_ID)).thenReturn(Optional.of(comment));
+    }
+
+    @Test
+    void testCborIsNegotiated() throws Exception {
+        MvcResult result = mockMvc.perform(get(COMMENT_URL).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        assertThat(BinaryObjectMappers.cbor(jsonBuilder()).readValue(result.getResponse().getContentAsByteArray(), CommentDto.class))
+                .isEqualTo(comment);
+    }
+
+    @Test
+    void testSmileIsNegotiated() throws Exception {
+        MvcResult result = mockMvc.perform(get(COMMENT_URL).accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn();
+
+        assertThat(BinaryObjectMappers.smile(jsonBuilder()).readValue(result.getResponse().getContentAsByteArray(), CommentDto.class))
+                .isEqualTo(comment);
+    }
+
+    @Test
+    void testJsonIsTheDefault() throws Exception {
+        mockMvc.perform(get(COMMENT_URL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * same defaults as the builder auto-configured by Spring Boot
+     */
+    private static Jackson2ObjectMapperBuilder jsonBuilder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.springboot.task.converter;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.exception.BatchTooLargeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedListHttpMessageConverterTest {
+
+    private static final Type COMMENT_LIST = new ParameterizedTypeReference<List<CommentDto>>() {
+    }.getType();
+
+    private final BoundedListHttpMessageConverter converter =
+            new BoundedListHttpMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule()), 2);
+
+    @Test
+    void testJsonArrayAndNdjsonAreRead() throws IOException {
+        assertThat(read(MediaType.APPLICATION_JSON, "[{\"text\":\"one\"}, {\"text\":\"two\"}]"))
+                .extracting(CommentDto::getText).containsExactly("one", "two");
+        assertThat(read(MediaType.APPLICATION_NDJSON, "{\"text\":\"one\"}\n\n{\"text\":\"two\"}\n"))
+                .extracting(CommentDto::getText).containsExactly("one", "two");
+    }
+
+    @Test
+    void testItemOverLimitIsRejected() {
+        assertThatThrownBy(() -> read(MediaType.APPLICATION_JSON, "[{\"text\":\"1\"}, {\"text\":\"2\"}, {\"text\":\"3\"}"))
+                .isInstanceOf(BatchTooLargeException.class);
+        assertThatThrownBy(() -> read(MediaType.APPLICATION_NDJSON, "{\"text\":\"1\"}\n{\"text\":\"2\"}\n{\"text\":"))
+                .isInstanceOf(BatchTooLargeException.class);
+    }
+
+    @Test
+    void testMalformedBodyIsNotReadable() {
+        assertThatThrownBy(() -> read(MediaType.APPLICATION_JSON, "{\"text\":\"one\"}"))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> read(MediaType.APPLICATION_JSON, "[{\"text\":\"one\"}"))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> read(MediaType.APPLICATION_NDJSON, "{\"text\":"))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    @Test
+    void testOnlyListsAreRead() {
+        assertThat(converter.canRead(COMMENT_LIST, null, MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(converter.canRead(CommentDto.class, null, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(COMMENT_LIST, null, MediaType.TEXT_PLAIN)).isFalse();
+        assertThat(converter.canWrite(COMMENT_LIST, null, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CommentDto> read(MediaType contentType, String body) throws IOException {
+        MockHttpInputMessage message = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        message.getHeaders().setContentType(contentType);
+        return (List<CommentDto>) converter.read(COMMENT_LIST, null, message);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.springboot.task.datasource;
+
+import com.example.springboot.task.aspect.ReadFromPrimaryAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "select lag from replication";
+    private static final String NAME_QUERY = "select name from node";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DataSource primary;
+    private DataSource replica1;
+    private DataSource replica2;
+    private ReadReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replica1 = node("replica-1");
+        replica2 = node("replica-2");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        routingDataSource = new ReadReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(5),
+                Duration.ofHours(1), LAG_QUERY, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        routingDataSource.close();
+        for (DataSource dataSource : new DataSource[]{primary, replica1, replica2}) {
+            new JdbcTemplate(dataSource).execute("drop all objects");
+        }
+    }
+
+    @Test
+    void testReadOnlyTransactionsTakeReplicasInTurn() {
+        assertThat(readOnlyNode()).isEqualTo("replica-1");
+        assertThat(Arrays.asList(readOnlyNode(), readOnlyNode())).containsExactlyInAnyOrder("replica-1", "replica-2");
+    }
+
+    @Test
+    void testWritesAndReadsOutsideReadOnlyTransactionsUsePrimary() {
+        String readWriteNode = readWrite.execute(status -> jdbcTemplate.queryForObject(NAME_QUERY, String.class));
+
+        assertThat(readWriteNode).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject(NAME_QUERY, String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void testLaggingReplicaIsSkippedUntilItCatchesUp() {
+        setLag(replica1, 60);
+        routingDataSource.checkReplicas();
+
+        assertThat(readOnlyNode()).isEqualTo("replica-2");
+        assertThat(readOnlyNode()).isEqualTo("replica-2");
+
+        setLag(replica1, 0);
+        routingDataSource.checkReplicas();
+
+        assertThat(Arrays.asList(readOnlyNode(), readOnlyNode())).containsExactlyInAnyOrder("replica-1", "replica-2");
+    }
+
+    @Test
+    void testReadOnlyTransactionsFallBackToPrimary() {
+        setLag(replica1, 60);
+        new JdbcTemplate(replica2).execute("drop table replication");
+        routingDataSource.checkReplicas();
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+        assertThat(meterRegistry.counter("datasource.replica.fallbacks").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadOnlyJpaTransactionsUseReplicas() {
+        EntityManagerFactory entityManagerFactory = entityManagerFactory();
+        try {
+            TransactionTemplate jpaReadOnly = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+            jpaReadOnly.setReadOnly(true);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+            Object node = jpaReadOnly.execute(status -> entityManager.createNativeQuery(NAME_QUERY).getSingleResult());
+
+            assertThat(node).isEqualTo("replica-1");
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    @Test
+    void testReadFromPrimaryInReadOnlyJpaTransaction() {
+        EntityManagerFactory entityManagerFactory = entityManagerFactory();
+        try {
+            TransactionTemplate jpaReadOnly = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+            jpaReadOnly.setReadOnly(true);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new NodeReader(jpaReadOnly, entityManager));
+            proxyFactory.addAspect(new ReadFromPrimaryAspect());
+            NodeReader reader = proxyFactory.getProxy();
+
+            assertThat(reader.fromPrimary()).isEqualTo("primary");
+            assertThat(reader.fromAnyNode()).isEqualTo("replica-1");
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    private EntityManagerFactory entityManagerFactory() {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new LazyConnectionDataSourceProxy(routingDataSource));
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setPackagesToScan(getClass().getPackage().getName());
+        factoryBean.getJpaPropertyMap().put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        factoryBean.afterPropertiesSet();
+        return factoryBean.getObject();
+    }
+
+    public static class NodeReader {
+
+        private final TransactionTemplate readOnly;
+
+        private final EntityManager entityManager;
+
+        NodeReader(TransactionTemplate readOnly, EntityManager entityManager) {
+            this.readOnly = readOnly;
+            this.entityManager = entityManager;
+        }
+
+        @ReadFromPrimary
+        public Object fromPrimary() {
+            return fromAnyNode();
+        }
+
+        public Object fromAnyNode() {
+            return readOnly.execute(status -> entityManager.createNativeQuery(NAME_QUERY).getSingleResult());
+        }
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> jdbcTemplate.queryForObject(NAME_QUERY, String.class));
+    }
+
+    private static void setLag(DataSource dataSource, int seconds) {
+        new JdbcTemplate(dataSource).update("update replication set lag = ?", seconds);
+    }
+
+    private static DataSource node(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        jdbcTemplate.execute("create table replication (lag int)");
+        jdbcTemplate.update("insert into replication values (0)");
+        return dataSource;
+    }
+}
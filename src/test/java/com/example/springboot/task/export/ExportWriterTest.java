@@ -0,0 +1,59 @@
+package com.example.springboot.task.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    @Test
+    void testCsvValuesAreQuotedOnlyWhenNeeded() throws IOException {
+        String csv = exportCsv(
+                new String[]{"plain", "a, b"},
+                new String[]{"say \"hi\"", "two\nlines"},
+                new String[]{"carriage\rreturn", null},
+                new String[]{"", "ünïcode"});
+
+        assertThat(csv).isEqualTo("first,second\r\n" +
+                "plain,\"a, b\"\r\n" +
+                "\"say \"\"hi\"\"\",\"two\nlines\"\r\n" +
+                "\"carriage\rreturn\",\r\n" +
+                ",ünïcode\r\n");
+    }
+
+    @Test
+    void testRowsAreCountedAndFlushedBeforeClose() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter<String[]> writer = new ExportWriter<>(ExportFormat.CSV, out, new ObjectMapper(), columns(), 1);
+
+        writer.write(new String[]{"1", "2"});
+        writer.write(new String[]{"3", "4"});
+
+        assertThat(writer.getRows()).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8.name())).isEqualTo("first,second\r\n1,2\r\n3,4\r\n");
+    }
+
+    private static String exportCsv(String[]... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<String[]> writer = new ExportWriter<>(ExportFormat.CSV, out, new ObjectMapper(), columns(), 100)) {
+            for (String[] row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static LinkedHashMap<String, Function<String[], Object>> columns() {
+        LinkedHashMap<String, Function<String[], Object>> columns = new LinkedHashMap<>();
+        columns.put("first", row -> row[0]);
+        columns.put("second", row -> row[1]);
+        return columns;
+    }
+}
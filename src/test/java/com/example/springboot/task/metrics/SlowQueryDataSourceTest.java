@@ -0,0 +1,111 @@
+package com.example.springboot.task.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static com.example.springboot.task.util.UtilConstants.SERVICE_METHOD_MDC_KEY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SlowQueryDataSourceTest {
+
+    private static final String SQL = "select * from comments where user_name = ?";
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("sql.slow");
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        MDC.remove(SERVICE_METHOD_MDC_KEY);
+    }
+
+    @Test
+    void testStatementOverThresholdIsLoggedAndCounted() throws SQLException {
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+        MDC.put(SERVICE_METHOD_MDC_KEY, "NewsServiceImpl.findById");
+        SlowQueryDataSource dataSource = new SlowQueryDataSource(target, Duration.ZERO, meterRegistry);
+
+        try (Connection proxy = dataSource.getConnection(); PreparedStatement prepared = proxy.prepareStatement(SQL)) {
+            prepared.setString(1, "secret");
+            prepared.executeQuery();
+        }
+
+        verify(statement).setString(1, "secret");
+        verify(statement).executeQuery();
+        assertThat(appender.list).singleElement().satisfies(event -> assertThat(event.getFormattedMessage())
+                .contains("service=NewsServiceImpl.findById", "sql=" + SQL)
+                .doesNotContain("secret"));
+        assertThat(meterRegistry.get("jdbc.statements.slow").tag("service", "NewsServiceImpl.findById").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testStatementUnderThresholdIsNotLogged() throws SQLException {
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+        SlowQueryDataSource dataSource = new SlowQueryDataSource(target, Duration.ofHours(1), meterRegistry);
+
+        try (Connection proxy = dataSource.getConnection(); PreparedStatement prepared = proxy.prepareStatement(SQL)) {
+            prepared.executeQuery();
+        }
+
+        assertThat(appender.list).isEmpty();
+        assertThat(meterRegistry.find("jdbc.statements.slow").counter()).isNull();
+    }
+
+    @Test
+    void testUnwrapAndCloseReachTheTarget() throws SQLException {
+        when(connection.prepareStatement(SQL)).thenReturn(statement);
+        when(connection.unwrap(Connection.class)).thenReturn(connection);
+        when(statement.unwrap(PreparedStatement.class)).thenReturn(statement);
+        SlowQueryDataSource dataSource = new SlowQueryDataSource(target, Duration.ZERO, meterRegistry);
+
+        Connection proxy = dataSource.getConnection();
+        PreparedStatement prepared = proxy.prepareStatement(SQL);
+
+        assertThat(proxy.unwrap(Connection.class)).isSameAs(connection);
+        assertThat(prepared.unwrap(PreparedStatement.class)).isSameAs(statement);
+        prepared.close();
+        proxy.close();
+        verify(statement).close();
+        verify(connection).close();
+        assertThat(appender.list).isEmpty();
+    }
+}
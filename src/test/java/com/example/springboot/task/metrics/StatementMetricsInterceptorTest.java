@@ -0,0 +1,59 @@
+package com.example.springboot.task.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementMetricsInterceptorTest {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StatementMetricsInterceptor interceptor = new StatementMetricsInterceptor(statementCounter, meterRegistry, 20);
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/news/1");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/news/{id}");
+    }
+
+    @Test
+    void testStatementsOfRequestThreadAreRecorded() throws InterruptedException {
+        statementCounter.inspect("select 1");
+        interceptor.preHandle(request, response, null);
+        statementCounter.inspect("select 2");
+        statementCounter.inspect("select 3");
+        Thread other = new Thread(() -> statementCounter.inspect("select 4"));
+        other.start();
+        other.join();
+        interceptor.afterCompletion(request, response, null, null);
+
+        DistributionSummary summary = meterRegistry.get("http.server.requests.statements")
+                .tag("method", "GET").tag("uri", "/news/{id}").summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void testAsyncDispatchIsNotRecorded() {
+        request.setDispatcherType(DispatcherType.ASYNC);
+
+        interceptor.preHandle(request, response, null);
+        statementCounter.inspect("select 1");
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(meterRegistry.find("http.server.requests.statements").summary()).isNull();
+    }
+}
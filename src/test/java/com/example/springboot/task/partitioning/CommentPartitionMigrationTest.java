@@ -0,0 +1,123 @@
+package com.example.springboot.task.partitioning;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.example.springboot.task.partitioning.CommentPartitionMigration.CHECKPOINT;
+import static com.example.springboot.task.partitioning.CommentPartitionMigration.COPY_BATCH;
+import static com.example.springboot.task.partitioning.CommentPartitionMigration.CREATE_BATCH_PARTITIONS;
+import static com.example.springboot.task.partitioning.CommentPartitionMigration.INIT_CHECKPOINT;
+import static com.example.springboot.task.partitioning.CommentPartitionMigration.PENDING;
+import static com.example.springboot.task.partitioning.CommentPartitionMigration.SAVE_CHECKPOINT;
+import static com.example.springboot.task.partitioning.CommentPartitionMigration.SWITCH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommentPartitionMigrationTest {
+
+    private static final int BATCH_SIZE = 100;
+    private static final long UNTIL_ID = 250L;
+    private static final Duration LOCK_TIMEOUT = Duration.ofMillis(10);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CommentPartitionMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration = new CommentPartitionMigration(jdbcTemplate, new TransactionTemplate(transactionManager), BATCH_SIZE,
+                Duration.ZERO, LOCK_TIMEOUT, meterRegistry);
+    }
+
+    @Test
+    void testFirstBatchInitializesCheckpoint() {
+        when(jdbcTemplate.queryForMap(CHECKPOINT)).thenReturn(checkpoint(0L, null))
+                .thenReturn(checkpoint(0L, UNTIL_ID));
+        when(jdbcTemplate.queryForMap(COPY_BATCH, 0L, UNTIL_ID, BATCH_SIZE)).thenReturn(batch(100L, 100L));
+
+        assertThat(migration.copyBatch()).isTrue();
+
+        verify(jdbcTemplate, times(1)).update(INIT_CHECKPOINT);
+        verify(jdbcTemplate, times(1)).queryForList(CREATE_BATCH_PARTITIONS, 0L, UNTIL_ID, BATCH_SIZE);
+        verify(jdbcTemplate, times(1)).update(SAVE_CHECKPOINT, 100L);
+        assertThat(meterRegistry.counter("comments.partition.copied").count()).isEqualTo(100);
+    }
+
+    @Test
+    void testBatchGoesOnFromCheckpoint() {
+        when(jdbcTemplate.queryForMap(CHECKPOINT)).thenReturn(checkpoint(100L, UNTIL_ID));
+        when(jdbcTemplate.queryForMap(COPY_BATCH, 100L, UNTIL_ID, BATCH_SIZE)).thenReturn(batch(200L, 98L));
+
+        assertThat(migration.copyBatch()).isTrue();
+
+        verify(jdbcTemplate, never()).update(INIT_CHECKPOINT);
+        verify(jdbcTemplate, times(1)).update(SAVE_CHECKPOINT, 200L);
+        assertThat(meterRegistry.counter("comments.partition.copied").count()).isEqualTo(98);
+    }
+
+    @Test
+    void testCopyStopsAtUntilId() {
+        when(jdbcTemplate.queryForMap(CHECKPOINT)).thenReturn(checkpoint(UNTIL_ID, UNTIL_ID));
+        when(jdbcTemplate.queryForMap(COPY_BATCH, UNTIL_ID, UNTIL_ID, BATCH_SIZE)).thenReturn(batch(null, 0L));
+
+        assertThat(migration.copyBatch()).isFalse();
+
+        verify(jdbcTemplate, never()).update(eq(SAVE_CHECKPOINT), anyLong());
+    }
+
+    @Test
+    void testSwitchIsRetriedAfterLockTimeout() {
+        when(jdbcTemplate.queryForObject(PENDING, Boolean.class)).thenReturn(true);
+        when(jdbcTemplate.queryForMap(CHECKPOINT)).thenReturn(checkpoint(UNTIL_ID, UNTIL_ID));
+        when(jdbcTemplate.queryForMap(COPY_BATCH, UNTIL_ID, UNTIL_ID, BATCH_SIZE)).thenReturn(batch(null, 0L));
+        when(jdbcTemplate.queryForObject(SWITCH, Object.class))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(null);
+
+        migration.start();
+
+        verify(jdbcTemplate, timeout(5000).times(2)).queryForObject(SWITCH, Object.class);
+        verify(jdbcTemplate, times(2)).execute("set local lock_timeout = '10ms'");
+        migration.stop();
+    }
+
+    private static Map<String, Object> checkpoint(Long lastId, Long untilId) {
+        Map<String, Object> checkpoint = new HashMap<>();
+        checkpoint.put("last_id", lastId);
+        checkpoint.put("until_id", untilId);
+        return checkpoint;
+    }
+
+    private static Map<String, Object> batch(Long maxId, Long copied) {
+        Map<String, Object> batch = new HashMap<>();
+        batch.put("max_id", maxId);
+        batch.put("copied", copied);
+        return batch;
+    }
+}
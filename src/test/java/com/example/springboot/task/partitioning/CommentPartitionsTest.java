@@ -0,0 +1,38 @@
+package com.example.springboot.task.partitioning;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static com.example.springboot.task.partitioning.CommentPartitions.CREATE_PARTITIONS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommentPartitionsTest {
+
+    private static final int MONTHS_AHEAD = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCreatePartitionsReturnsCreatedCount() {
+        when(jdbcTemplate.queryForObject(CREATE_PARTITIONS, Integer.class, MONTHS_AHEAD)).thenReturn(2);
+        CommentPartitions partitions = new CommentPartitions(jdbcTemplate, MONTHS_AHEAD, Duration.ofHours(1));
+
+        assertThat(partitions.createPartitions()).isEqualTo(2);
+    }
+
+    @Test
+    void testCreatePartitionsReturnsZeroOnNullResult() {
+        when(jdbcTemplate.queryForObject(CREATE_PARTITIONS, Integer.class, MONTHS_AHEAD)).thenReturn(null);
+        CommentPartitions partitions = new CommentPartitions(jdbcTemplate, MONTHS_AHEAD, Duration.ofHours(1));
+
+        assertThat(partitions.createPartitions()).isZero();
+    }
+}
@@ -1,26 +1,45 @@
 package com.example.springboot.task.service.impl;
 
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.dto.BatchItemResultDto;
+import com.example.springboot.task.dto.BatchItemStatus;
+import com.example.springboot.task.dto.BatchResultDto;
 import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
 import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.dto.UserCommentDto;
 import com.example.springboot.task.entity.Comment;
 import com.example.springboot.task.entity.News;
+import com.example.springboot.task.exception.CommentNotFoundException;
+import com.example.springboot.task.exception.NewsNotFoundException;
+import com.example.springboot.task.exception.VersionConflictException;
 import com.example.springboot.task.mapper.CommentMapper;
 import com.example.springboot.task.repository.CommentRepository;
 import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.repository.projection.UpdatedCommentView;
+import com.example.springboot.task.repository.projection.VersionView;
+import com.example.springboot.task.util.KeysetCursor;
+import com.example.springboot.task.validator.CommentDtoValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -53,7 +72,12 @@ class CommentServiceImplTest {
     @Mock
     private NewsRepository newsRepository;
 
-    @InjectMocks
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CommentDtoValidator validator;
+
     CommentServiceImpl commentService;
 
     private Comment comment1;
@@ -69,10 +93,11 @@ class CommentServiceImplTest {
     private CommentDto commentDto3;
     private CommentDto newCommentDto;
 
-    private List<Comment> listComment;
+    private List<CommentDto> listComment;
 
     @BeforeEach
     void setUp() {
+        commentService = new CommentServiceImpl(commentRepository, mapper, newsRepository, cacheInvalidator, validator, Optional.empty());
         comment1 = new Comment(COMMENT_ONE_ID, LocalDateTime.now(), COMMENT_ONE_TEXT, COMMENT_ONE_USER);
         comment2 = new Comment(COMMENT_SECOND_ID, LocalDateTime.now(), COMMENT_SECOND_TEXT, COMMENT_SECOND_USER);
         comment3 = new Comment(COMMENT_THIRD_ID, LocalDateTime.now(), COMMENT_THIRD_TEXT, COMMENT_THIRD_USER);
@@ -86,61 +111,125 @@ class CommentServiceImplTest {
         commentDto3 = new CommentDto(COMMENT_THIRD_ID, LocalDateTime.now(), COMMENT_THIRD_TEXT, COMMENT_THIRD_USER);
         newCommentDto = new CommentDto(COMMENT_ONE_ID, LocalDateTime.now(), NEW_COMMENT_TEXT, NEW_COMMENT_USER);
 
-        listComment = Arrays.asList(comment1, comment2, comment3);
+        listComment = Arrays.asList(commentDto1, commentDto2, commentDto3);
     }
 
 
     @Test
     void testFindAll() {
-        when(newsRepository.findById(NEWS_ONE_ID)).thenReturn(Optional.of(news1));
         when(commentRepository.findByNewsId(NEWS_ONE_ID)).thenReturn(listComment);
-        when(mapper.entityToDto(comment1)).thenReturn(commentDto1);
-        when(mapper.entityToDto(comment2)).thenReturn(commentDto2);
-        when(mapper.entityToDto(comment3)).thenReturn(commentDto3);
         List<CommentDto> list = commentService.findAll(NEWS_ONE_ID);
         assertThat(list).hasSize(3).extracting(CommentDto::getText).containsOnly(COMMENT_ONE_TEXT, COMMENT_SECOND_TEXT, COMMENT_THIRD_TEXT);
         assertThat(list).hasSize(3).extracting(CommentDto::getUserName).containsOnly(COMMENT_ONE_USER, COMMENT_SECOND_USER, COMMENT_THIRD_USER);
     }
 
+    @Test
+    void testFindAllByUserNameWithKeysetPagination() {
+        LocalDateTime date = LocalDateTime.now();
+        UserCommentDto first = new UserCommentDto(COMMENT_SECOND_ID, NEWS_ONE_ID, date, COMMENT_SECOND_TEXT, COMMENT_ONE_USER, 0L);
+        UserCommentDto second = new UserCommentDto(COMMENT_ONE_ID, 2L, date, COMMENT_ONE_TEXT, COMMENT_ONE_USER, 0L);
+        UserCommentDto third = new UserCommentDto(COMMENT_THIRD_ID, NEWS_ONE_ID, date.minusDays(1), COMMENT_THIRD_TEXT, COMMENT_ONE_USER, 0L);
+        when(commentRepository.findByUserName(COMMENT_ONE_USER, KeysetCursor.limit(2))).thenReturn(Arrays.asList(first, second, third));
+
+        CursorPageDto<UserCommentDto> firstPage = commentService.findAllByUserName(COMMENT_ONE_USER, null, 2);
+        assertThat(firstPage.getContent()).extracting(UserCommentDto::getNewsId).containsExactly(NEWS_ONE_ID, 2L);
+        assertNotNull(firstPage.getNextCursor());
+
+        KeysetCursor<LocalDateTime> cursor = KeysetCursor.decode(firstPage.getNextCursor(), LocalDateTime::parse);
+        when(commentRepository.findByUserNameAfter(COMMENT_ONE_USER, cursor.getKey(), COMMENT_ONE_ID, KeysetCursor.limit(2)))
+                .thenReturn(Collections.singletonList(third));
+        CursorPageDto<UserCommentDto> lastPage = commentService.findAllByUserName(COMMENT_ONE_USER, firstPage.getNextCursor(), 2);
+        assertThat(lastPage.getContent()).extracting(UserCommentDto::getText).containsExactly(COMMENT_THIRD_TEXT);
+        assertNull(lastPage.getNextCursor());
+        verify(newsRepository, never()).existsById(any());
+    }
+
     @Test
     void testFindById() {
-        when(newsRepository.findById(NEWS_ONE_ID)).thenReturn(Optional.of(news1));
+        when(commentRepository.findByNewsIdAndId(NEWS_ONE_ID, COMMENT_ONE_ID)).thenReturn(Optional.of(commentDto1));
         Optional<CommentDto> commentDto = commentService.findById(news1.getId(), comment1.getId());
         verify(commentRepository, times(1)).findByNewsIdAndId(NEWS_ONE_ID, COMMENT_ONE_ID);
-        assertNotNull(commentDto);
+        verify(newsRepository, never()).existsById(NEWS_ONE_ID);
+        assertThat(commentDto).contains(commentDto1);
+    }
+
+    @Test
+    void testFindByIdWhenNewsNotFound() {
+        when(newsRepository.existsById(NEWS_ONE_ID)).thenReturn(false);
+        assertThrows(NewsNotFoundException.class, () -> commentService.findById(NEWS_ONE_ID, COMMENT_ONE_ID));
     }
 
     @Test
     void testCreate() {
-        when(newsRepository.findById(NEWS_ONE_ID)).thenReturn(Optional.of(news1));
+        when(newsRepository.existsById(NEWS_ONE_ID)).thenReturn(true);
+        when(newsRepository.getById(NEWS_ONE_ID)).thenReturn(news1);
         when(mapper.dtoToEntity(newCommentDto)).thenReturn(newComment);
         when(mapper.entityToDto(newComment)).thenReturn(newCommentDto);
+        when(commentRepository.save(newComment)).thenReturn(newComment);
         newComment.setNews(news1);
         commentService.create(NEWS_ONE_ID,mapper.entityToDto(newComment));
         verify(commentRepository, times(1)).save(mapper.dtoToEntity(newCommentDto));
+        verify(newsRepository, times(1)).addComments(NEWS_ONE_ID, 1, newComment.getDate());
     }
 
+    @Test
+    void testCreateAll() {
+        when(newsRepository.existsById(NEWS_ONE_ID)).thenReturn(true);
+        when(newsRepository.getById(NEWS_ONE_ID)).thenReturn(news1);
+        when(validator.validate(commentDto1)).thenReturn(Collections.emptyList());
+        when(validator.validate(commentDto2)).thenReturn(Collections.singletonList("userName must not be null"));
+        when(mapper.dtoToEntity(commentDto1)).thenReturn(comment1);
+        when(commentRepository.saveAll(Collections.singletonList(comment1))).thenReturn(Collections.singletonList(comment1));
+
+        BatchResultDto result = commentService.createAll(NEWS_ONE_ID, Arrays.asList(commentDto1, commentDto2));
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getItems()).extracting(BatchItemResultDto::getStatus).containsExactly(BatchItemStatus.CREATED, BatchItemStatus.REJECTED);
+        assertThat(comment1.getNews()).isEqualTo(news1);
+        verify(newsRepository, times(1)).addComments(NEWS_ONE_ID, 1, comment1.getDate());
+    }
 
     @Test
     void testUpdate() {
-        when(newsRepository.findById(NEWS_ONE_ID)).thenReturn(Optional.of(news1));
-        when(commentRepository.findById(COMMENT_ONE_ID)).thenReturn(Optional.of(comment1));
-        when(mapper.dtoToEntity(newCommentDto)).thenReturn(newComment);
-        when(mapper.entityToDto(newComment)).thenReturn(newCommentDto);
-        newComment.setNews(news1);
-        when(commentRepository.save(newComment)).thenReturn(newComment);
-        commentService.update(NEWS_ONE_ID, mapper.entityToDto(newComment));
-        verify(commentRepository, times(1)).save(mapper.dtoToEntity(newCommentDto));
+        UpdatedCommentView updated = mock(UpdatedCommentView.class);
+        when(updated.getPreviousDate()).thenReturn(comment1.getDate());
+        when(updated.getVersion()).thenReturn(2L);
+        when(commentRepository.updateByNewsIdAndId(eq(NEWS_ONE_ID), eq(COMMENT_ONE_ID), eq(newCommentDto.getDate()),
+                eq(NEW_COMMENT_TEXT), eq(NEW_COMMENT_USER), any(LocalDateTime.class))).thenReturn(Optional.of(updated));
+        CommentDto commentDto = commentService.update(NEWS_ONE_ID, newCommentDto);
+        assertThat(commentDto.getText()).isEqualTo(NEW_COMMENT_TEXT);
+        assertThat(commentDto.getVersion()).isEqualTo(2L);
+        verify(newsRepository, never()).existsById(NEWS_ONE_ID);
+    }
 
+    @Test
+    void testUpdateWhenCommentNotFound() {
+        when(newsRepository.existsById(NEWS_ONE_ID)).thenReturn(true);
+        assertThrows(CommentNotFoundException.class, () -> commentService.update(NEWS_ONE_ID, newCommentDto));
+    }
 
+    @Test
+    void testUpdateWithStaleVersion() {
+        newCommentDto.setVersion(1L);
+        when(newsRepository.existsById(NEWS_ONE_ID)).thenReturn(true);
+        when(commentRepository.findVersionByNewsIdAndId(NEWS_ONE_ID, COMMENT_ONE_ID)).thenReturn(Optional.of(mock(VersionView.class)));
+        assertThrows(VersionConflictException.class, () -> commentService.update(NEWS_ONE_ID, newCommentDto));
     }
 
 
     @Test
     void testDelete() {
-        when(newsRepository.findById(NEWS_ONE_ID)).thenReturn(Optional.of(news1));
-        when(commentRepository.findById(COMMENT_ONE_ID)).thenReturn(Optional.of(comment1));
+        when(commentRepository.deleteByNewsIdAndId(NEWS_ONE_ID, COMMENT_ONE_ID)).thenReturn(Optional.of(comment1.getDate()));
         commentService.delete(news1.getId(), comment1.getId());
         verify(commentRepository, times(1)).deleteByNewsIdAndId(news1.getId(), comment1.getId());
+        verify(newsRepository, times(1)).removeComments(NEWS_ONE_ID, 1);
+        verify(newsRepository, never()).existsById(NEWS_ONE_ID);
+    }
+
+    @Test
+    void testDeleteWhenNewsNotFound() {
+        when(newsRepository.existsById(NEWS_ONE_ID)).thenReturn(false);
+        assertThrows(NewsNotFoundException.class, () -> commentService.delete(NEWS_ONE_ID, COMMENT_ONE_ID));
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.example.springboot.task.service.impl;
+
+import com.example.springboot.task.bulkimport.ImportFormat;
+import com.example.springboot.task.bulkimport.ImportKind;
+import com.example.springboot.task.bulkimport.ImportRunner;
+import com.example.springboot.task.config.ImportProperties;
+import com.example.springboot.task.exception.ImportTooLargeException;
+import com.example.springboot.task.mapper.ImportJobMapper;
+import com.example.springboot.task.repository.ImportJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ImportJobRepository repository;
+
+    @Mock
+    private ImportJobMapper mapper;
+
+    @Mock
+    private ImportRunner runner;
+
+    private ImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        ImportProperties properties = new ImportProperties();
+        properties.setDirectory(directory);
+        properties.setMaxUploadSize(DataSize.ofBytes(16));
+        importService = new ImportServiceImpl(repository, mapper, runner, properties);
+    }
+
+    @Test
+    void testUploadOverLimitIsRejectedAndRemoved() throws IOException {
+        ByteArrayInputStream content = new ByteArrayInputStream(new byte[17]);
+
+        assertThrows(ImportTooLargeException.class,
+                () -> importService.create(ImportKind.NEWS, ImportFormat.NDJSON, content));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        verify(repository, never()).save(any());
+        verify(runner, never()).submit(anyLong());
+    }
+}
@@ -1,28 +1,47 @@
 package com.example.springboot.task.service.impl;
 
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.CursorPageDto;
 import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.dto.NewsSearchResultDto;
+import com.example.springboot.task.dto.NewsSort;
 import com.example.springboot.task.entity.News;
+import com.example.springboot.task.exception.InvalidSearchQueryException;
+import com.example.springboot.task.exception.NewsNotFoundException;
+import com.example.springboot.task.exception.VersionConflictException;
 import com.example.springboot.task.mapper.NewsMapper;
+import com.example.springboot.task.repository.CommentRepository;
 import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.repository.projection.NewsComment;
+import com.example.springboot.task.repository.projection.NewsSearchHit;
+import com.example.springboot.task.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -49,7 +68,12 @@ class NewsServiceImplTest {
     @Mock
     private NewsMapper mapper;
 
-    @InjectMocks
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
     private NewsServiceImpl newsService;
 
     private News news1;
@@ -63,11 +87,12 @@ class NewsServiceImplTest {
 
     private NewsDto newNewsDto;
 
-    private List<News> newsList;
+    private List<NewsDto> newsList;
 
 
     @BeforeEach
     void setUp() {
+        newsService = new NewsServiceImpl(newsRepository, mapper, commentRepository, cacheInvalidator, Optional.empty());
         news1 = new News(NEWS_ONE_ID, LocalDateTime.now(), NEWS_ONE_TITLE, NEWS_ONE_TEXT);
         news2 = new News(NEWS_SECOND_ID, LocalDateTime.now(), NEWS_SECOND_TITLE, NEWS_SECOND_TEXT);
         news3 = new News(NEWS_THIRD_ID, LocalDateTime.now(), NEWS_THIRD_TITLE, NEWS_THIRD_TEXT);
@@ -79,47 +104,120 @@ class NewsServiceImplTest {
         newsDto3 = new NewsDto(NEWS_THIRD_ID, LocalDateTime.now(), NEWS_THIRD_TITLE, NEWS_THIRD_TEXT);
         newNewsDto = new NewsDto(NEWS_THIRD_ID, LocalDateTime.now(), NEW_NEWS_TITLE, NEW_NEWS_TEXT);
 
-        newsList = Arrays.asList(news1, news2, news3);
+        newsList = Arrays.asList(newsDto1, newsDto2, newsDto3);
     }
 
 
     @Test
     void testFindAll() {
-        when(newsRepository.findAll()).thenReturn(newsList);
-        when(mapper.entityToDto(news1)).thenReturn(newsDto1);
-        when(mapper.entityToDto(news2)).thenReturn(newsDto2);
-        when(mapper.entityToDto(news3)).thenReturn(newsDto3);
-        List<NewsDto> list = newsService.findAll();
+        when(newsRepository.findAllSummaries()).thenReturn(newsList);
+        List<NewsDto> list = newsService.findAll(false);
         assertThat(list).hasSize(3).extracting(NewsDto::getText).containsOnly(NEWS_ONE_TEXT, NEWS_SECOND_TEXT, NEWS_THIRD_TEXT);
         assertThat(list).hasSize(3).extracting(NewsDto::getTitle).containsOnly(NEWS_ONE_TITLE, NEWS_SECOND_TITLE, NEWS_THIRD_TITLE);
     }
 
         @Test
     void testFindAllWithPagination() {
-        Page pageMock = mock(Page.class);
         PageRequest pageRequest = PageRequest.of(0,2);
-        when(mapper.entityToDto(news1)).thenReturn(newsDto1);
-        when(mapper.entityToDto(news2)).thenReturn(newsDto2);
-        when(mapper.entityToDto(news3)).thenReturn(newsDto3);
-
-        when(pageMock.stream()).thenReturn(newsList.stream());
-        when(newsRepository.findAll(pageRequest)).thenReturn(pageMock);
+        when(newsRepository.findAllByOrderByDateDescIdDesc(pageRequest)).thenReturn(newsList);
 
-            List<NewsDto> dtoList = newsService.findAll(pageRequest);
+            List<NewsDto> dtoList = newsService.findAll(pageRequest, NewsSort.DATE, false);
 
             assertThat(dtoList).hasSize(3).extracting(NewsDto::getText).containsOnly(NEWS_ONE_TEXT, NEWS_SECOND_TEXT, NEWS_THIRD_TEXT);
             assertThat(dtoList).hasSize(3).extracting(NewsDto::getTitle).containsOnly(NEWS_ONE_TITLE, NEWS_SECOND_TITLE, NEWS_THIRD_TITLE);
         }
 
+    @Test
+    void testFindAllMostDiscussed() {
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        newsDto2.setCommentCount(7);
+        when(newsRepository.findAllByOrderByCommentCountDescIdDesc(pageRequest)).thenReturn(Arrays.asList(newsDto2, newsDto1));
+
+        List<NewsDto> dtoList = newsService.findAll(pageRequest, NewsSort.COMMENTS, false);
+
+        assertThat(dtoList).extracting(NewsDto::getId).containsExactly(NEWS_SECOND_ID, NEWS_ONE_ID);
+        assertThat(dtoList.get(0).getCommentCount()).isEqualTo(7);
+        verify(newsRepository, never()).findAllByOrderByDateDescIdDesc(pageRequest);
+    }
+
+    @Test
+    void testFindAllWithComments() {
+        NewsComment comment = new NewsComment(NEWS_ONE_ID, 1L, LocalDateTime.now(), "Comment text", "Ivan", 0L);
+        when(newsRepository.findAllSummaries()).thenReturn(newsList);
+        when(commentRepository.findByNewsIdInOrderByDateDescIdDesc(Arrays.asList(NEWS_ONE_ID, NEWS_SECOND_ID, NEWS_THIRD_ID)))
+                .thenReturn(Arrays.asList(comment));
+
+        List<NewsDto> list = newsService.findAll(true);
+
+        verify(commentRepository, times(1)).findByNewsIdInOrderByDateDescIdDesc(anyCollection());
+        assertThat(list.get(0).getCommentList()).containsExactly(comment.getComment());
+        assertThat(list.get(1).getCommentList()).isEmpty();
+        assertThat(list.get(2).getCommentList()).isEmpty();
+    }
+
+    @Test
+    void testFindAllWithKeysetPagination() {
+        when(newsRepository.findAllByOrderByDateDescIdDesc(KeysetCursor.limit(2))).thenReturn(newsList);
+
+        CursorPageDto<NewsDto> firstPage = newsService.findAll(null, 2, false);
+        assertThat(firstPage.getContent()).hasSize(2).extracting(NewsDto::getTitle).containsExactly(NEWS_ONE_TITLE, NEWS_SECOND_TITLE);
+        assertNotNull(firstPage.getNextCursor());
+
+        KeysetCursor<LocalDateTime> cursor = KeysetCursor.decode(firstPage.getNextCursor(), LocalDateTime::parse);
+        when(newsRepository.findAllAfter(cursor.getKey(), NEWS_SECOND_ID, KeysetCursor.limit(2))).thenReturn(Arrays.asList(newsDto3));
+        CursorPageDto<NewsDto> lastPage = newsService.findAll(firstPage.getNextCursor(), 2, false);
+        assertThat(lastPage.getContent()).extracting(NewsDto::getTitle).containsExactly(NEWS_THIRD_TITLE);
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void testSearch() {
+        NewsSearchHit hit1 = mock(NewsSearchHit.class);
+        NewsSearchHit hit2 = mock(NewsSearchHit.class);
+        NewsSearchResultDto result1 = new NewsSearchResultDto(NEWS_ONE_ID, LocalDateTime.now(), NEWS_ONE_TITLE, "<b>one</b>", 0.6f);
+        NewsSearchResultDto result2 = new NewsSearchResultDto(NEWS_SECOND_ID, LocalDateTime.now(), NEWS_SECOND_TITLE, "<b>one</b>", 0.1f);
+        when(newsRepository.search("one", 2)).thenReturn(Arrays.asList(hit1, hit2));
+        when(mapper.hitToDto(hit1)).thenReturn(result1);
+        when(mapper.hitToDto(hit2)).thenReturn(result2);
+
+        CursorPageDto<NewsSearchResultDto> firstPage = newsService.search("one", null, 1);
+        assertThat(firstPage.getContent()).containsExactly(result1);
+
+        KeysetCursor<Float> cursor = KeysetCursor.decode(firstPage.getNextCursor(), Float::valueOf);
+        assertThat(cursor.getKey()).isEqualTo(0.6f);
+        when(newsRepository.searchAfter("one", 0.6f, NEWS_ONE_ID, 2)).thenReturn(Arrays.asList(hit2));
+        CursorPageDto<NewsSearchResultDto> lastPage = newsService.search("one", firstPage.getNextCursor(), 1);
+        assertThat(lastPage.getContent()).containsExactly(result2);
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void testSearchWithBlankQuery() {
+        assertThrows(InvalidSearchQueryException.class, () -> newsService.search(" ", null, 5));
+        verify(newsRepository, never()).search(anyString(), anyInt());
+    }
+
     @Test
     void testFindById() {
-        when(newsRepository.findById(NEWS_ONE_ID)).thenReturn(Optional.of(news1));
+        NewsComment comment = new NewsComment(NEWS_ONE_ID, 1L, LocalDateTime.now(), "Comment text", "Ivan", 0L);
+        when(newsRepository.findSummaryById(NEWS_ONE_ID)).thenReturn(Optional.of(newsDto1));
+        when(commentRepository.findByNewsIdInOrderByDateDescIdDesc(Collections.singletonList(NEWS_ONE_ID)))
+                .thenReturn(Collections.singletonList(comment));
         Optional<NewsDto> newsDto = newsService.findById(NEWS_ONE_ID);
-        verify(newsRepository, times(1)).findById(anyLong());
-        assertNotNull(newsDto);
+        verify(newsRepository, never()).findById(anyLong());
+        assertThat(newsDto).contains(newsDto1);
+        assertThat(newsDto1.getCommentList()).containsExactly(comment.getComment());
     }
 
 
+    @Test
+    void testExportAll() {
+        when(newsRepository.streamAll()).thenReturn(Stream.of(newsDto1, newsDto2, newsDto3));
+        List<NewsDto> exported = new ArrayList<>();
+        newsService.exportAll(exported::add);
+        assertThat(exported).containsExactly(newsDto1, newsDto2, newsDto3);
+    }
+
     @Test
     void testCreate() {
         when(newsRepository.save(mapper.dtoToEntity(newsDto1))).thenReturn(news1);
@@ -130,18 +228,35 @@ class NewsServiceImplTest {
     @Test
     void testUpdate() {
         when(newsRepository.findById(NEWS_THIRD_ID)).thenReturn(Optional.of(news3));
-        when(mapper.entityToDto(newNews)).thenReturn(newNewsDto);
-        when(newsRepository.save(mapper.dtoToEntity(newNewsDto))).thenReturn(newNews);
-        newsService.update(mapper.entityToDto(newNews));
-        verify(newsRepository, times(1)).save(mapper.dtoToEntity(newNewsDto));
+        when(newsRepository.saveAndFlush(news3)).thenReturn(news3);
+        when(mapper.entityToDto(news3)).thenReturn(newNewsDto);
+        NewsDto updated = newsService.update(newNewsDto);
+        assertThat(updated.getTitle()).isEqualTo(NEW_NEWS_TITLE);
+        verify(mapper, times(1)).updateEntity(newNewsDto, news3);
+        verify(cacheInvalidator, times(1)).newsChanged(NEWS_THIRD_ID);
+    }
 
+    @Test
+    void testUpdateWithStaleVersion() {
+        news3.setVersion(2L);
+        newNewsDto.setVersion(1L);
+        when(newsRepository.findById(NEWS_THIRD_ID)).thenReturn(Optional.of(news3));
+        assertThrows(VersionConflictException.class, () -> newsService.update(newNewsDto));
+        verify(newsRepository, never()).saveAndFlush(news3);
     }
 
     @Test
     void testDelete() {
-        when(newsRepository.findById(NEWS_ONE_ID)).thenReturn(Optional.of(news1));
+        when(newsRepository.deleteNewsById(NEWS_ONE_ID)).thenReturn(1);
         newsService.delete(news1.getId());
-        verify(newsRepository, times(1)).deleteById(NEWS_ONE_ID);
+        verify(newsRepository, times(1)).deleteNewsById(NEWS_ONE_ID);
+        verify(commentRepository, never()).deleteAll(anyCollection());
+
+    }
 
+    @Test
+    void testDeleteWhenNewsNotFound() {
+        when(newsRepository.deleteNewsById(NEWS_ONE_ID)).thenReturn(0);
+        assertThrows(NewsNotFoundException.class, () -> newsService.delete(NEWS_ONE_ID));
     }
 }
\ No newline at end of file
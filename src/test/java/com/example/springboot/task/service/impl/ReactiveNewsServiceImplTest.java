@@ -0,0 +1,77 @@
+package com.example.springboot.task.service.impl;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.dto.NewsDto;
+import com.example.springboot.task.exception.CommentNotFoundException;
+import com.example.springboot.task.exception.NewsNotFoundException;
+import com.example.springboot.task.repository.reactive.CommentReactiveRepository;
+import com.example.springboot.task.repository.reactive.NewsReactiveRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveNewsServiceImplTest {
+
+    private static final Long NEWS_ID = 1L;
+    private static final Long COMMENT_ID = 2L;
+
+    @Mock
+    private NewsReactiveRepository newsRepository;
+
+    @Mock
+    private CommentReactiveRepository commentRepository;
+
+    @InjectMocks
+    private ReactiveNewsServiceImpl newsService;
+
+    private final NewsDto newsDto = new NewsDto(NEWS_ID, LocalDateTime.now(), "News title", "News text");
+
+    private final CommentDto commentDto = new CommentDto(COMMENT_ID, LocalDateTime.now(), "Comment text", "Ivan");
+
+    @Test
+    void testFindById() {
+        when(newsRepository.findById(NEWS_ID)).thenReturn(Mono.just(newsDto));
+        when(commentRepository.findByNewsId(NEWS_ID)).thenReturn(Flux.just(commentDto));
+
+        NewsDto found = newsService.findById(NEWS_ID).block();
+
+        assertThat(found.getCommentList()).containsExactly(commentDto);
+    }
+
+    @Test
+    void testFindByIdWhenNewsNotFound() {
+        when(newsRepository.findById(NEWS_ID)).thenReturn(Mono.empty());
+        when(commentRepository.findByNewsId(NEWS_ID)).thenReturn(Flux.empty());
+
+        assertThrows(NewsNotFoundException.class, () -> newsService.findById(NEWS_ID).block());
+    }
+
+    @Test
+    void testFindCommentsWhenNewsNotFound() {
+        when(newsRepository.existsById(NEWS_ID)).thenReturn(Mono.just(false));
+
+        assertThrows(NewsNotFoundException.class, () -> newsService.findComments(NEWS_ID).collectList().block());
+        verify(commentRepository, never()).findByNewsId(NEWS_ID);
+    }
+
+    @Test
+    void testFindCommentWhenCommentNotFound() {
+        when(commentRepository.findByNewsIdAndId(NEWS_ID, COMMENT_ID)).thenReturn(Mono.empty());
+        when(newsRepository.existsById(NEWS_ID)).thenReturn(Mono.just(true));
+
+        assertThrows(CommentNotFoundException.class, () -> newsService.findComment(NEWS_ID, COMMENT_ID).block());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.springboot.task.trending;
+
+import com.example.springboot.task.dto.TrendingNewsDto;
+import com.example.springboot.task.dto.TrendingWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TrendingNewsTest {
+
+    private static final Instant START = Instant.parse("2026-03-01T12:00:00Z");
+
+    private MutableClock clock;
+
+    private TrendingNews trendingNews;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        trendingNews = new TrendingNews(null, 2, clock);
+    }
+
+    @Test
+    void testMostCommentedNewsFirst() {
+        comment(1L, 1);
+        comment(2L, 3);
+        comment(3L, 2);
+
+        assertThat(trendingNews.top(TrendingWindow.HOUR, 10))
+                .extracting(TrendingNewsDto::getNewsId, TrendingNewsDto::getComments)
+                .containsExactly(tuple(2L, 3), tuple(3L, 2));
+        assertThat(trendingNews.top(TrendingWindow.HOUR, 1)).extracting(TrendingNewsDto::getNewsId).containsExactly(2L);
+    }
+
+    @Test
+    void testCommentsLeaveShorterWindowsFirst() {
+        comment(1L, 2);
+        clock.advance(Duration.ofMinutes(10));
+        comment(2L, 1);
+        trendingNews.rerank();
+
+        assertThat(trendingNews.top(TrendingWindow.FIVE_MINUTES, 10)).extracting(TrendingNewsDto::getNewsId).containsExactly(2L);
+        assertThat(trendingNews.top(TrendingWindow.HOUR, 10)).extracting(TrendingNewsDto::getNewsId).containsExactly(1L, 2L);
+
+        clock.advance(Duration.ofDays(1));
+        trendingNews.rerank();
+
+        assertThat(trendingNews.top(TrendingWindow.DAY, 10)).isEmpty();
+        assertThat(trendingNews.trackedNews()).isZero();
+    }
+
+    @Test
+    void testNewsBelowTheTopIsFoundAfterDeletes() {
+        comment(1L, 3);
+        comment(2L, 2);
+        comment(3L, 1);
+        trendingNews.commentDeleted(1L, now());
+        trendingNews.commentDeleted(1L, now());
+        trendingNews.commentDeleted(1L, now());
+
+        assertThat(trendingNews.top(TrendingWindow.HOUR, 10)).extracting(TrendingNewsDto::getNewsId).containsExactly(2L);
+
+        trendingNews.rerank();
+
+        assertThat(trendingNews.top(TrendingWindow.HOUR, 10)).extracting(TrendingNewsDto::getNewsId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testDeletedNewsIsForgotten() {
+        comment(1L, 2);
+        comment(2L, 1);
+
+        trendingNews.newsDeleted(1L);
+
+        assertThat(trendingNews.top(TrendingWindow.DAY, 10)).extracting(TrendingNewsDto::getNewsId).containsExactly(2L);
+    }
+
+    private void comment(Long newsId, int comments) {
+        for (int i = 0; i < comments; i++) {
+            trendingNews.commentAdded(newsId, now());
+        }
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = START;
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
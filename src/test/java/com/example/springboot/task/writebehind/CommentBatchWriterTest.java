@@ -0,0 +1,129 @@
+package com.example.springboot.task.writebehind;
+
+import com.example.springboot.task.cache.CacheInvalidator;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.repository.NewsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommentBatchWriterTest {
+
+    private static final Long NEWS_ONE_ID = 1L;
+    private static final Long NEWS_TWO_ID = 2L;
+    private static final LocalDateTime DATE = LocalDateTime.of(2021, 1, 1, 12, 0);
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private NewsRepository newsRepository;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    private CommentBatchWriter batchWriter;
+
+    @BeforeEach
+    void setUp() {
+        batchWriter = new CommentBatchWriter(namedJdbcTemplate, new TransactionTemplate(transactionManager), newsRepository,
+                cacheInvalidator, Optional.empty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWrittenCommentsAndDeletedNewsAreSkipped() {
+        when(namedJdbcTemplate.queryForList(startsWith("select id from comments"), anyMap(), eq(Long.class)))
+                .thenReturn(Collections.singletonList(101L));
+        when(namedJdbcTemplate.queryForList(startsWith("select id from news"), anyMap(), eq(Long.class)))
+                .thenReturn(Collections.singletonList(NEWS_ONE_ID));
+        when(namedJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+
+        CommentBatchWriter.BatchWritten written = batchWriter.write(Arrays.asList(pending(1, NEWS_ONE_ID, 101L),
+                pending(2, NEWS_ONE_ID, 102L), pending(3, NEWS_TWO_ID, 103L)));
+
+        assertThat(written.getInserted()).isEqualTo(1);
+        assertThat(written.getNewsDeleted()).isEqualTo(1);
+        ArgumentCaptor<Collection<PendingComment>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(rows.getValue()).extracting(pending -> pending.getComment().getId()).containsExactly(102L);
+        verify(newsRepository, times(1)).addComments(NEWS_ONE_ID, 1, DATE);
+        verify(newsRepository, never()).addComments(eq(NEWS_TWO_ID), anyInt(), any());
+        verify(cacheInvalidator, times(1)).commentChanged(NEWS_ONE_ID, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplayedBatchIsNotWrittenAgain() {
+        when(namedJdbcTemplate.queryForList(startsWith("select id from comments"), anyMap(), eq(Long.class)))
+                .thenReturn(Arrays.asList(101L, 102L));
+        when(namedJdbcTemplate.queryForList(startsWith("select id from news"), anyMap(), eq(Long.class)))
+                .thenReturn(Collections.singletonList(NEWS_ONE_ID));
+
+        CommentBatchWriter.BatchWritten written = batchWriter.write(Arrays.asList(pending(1, NEWS_ONE_ID, 101L),
+                pending(2, NEWS_ONE_ID, 102L)));
+
+        assertThat(written.getInserted()).isZero();
+        assertThat(written.getNewsDeleted()).isZero();
+        verify(namedJdbcTemplate, never()).getJdbcTemplate();
+        verify(newsRepository, never()).addComments(any(), anyInt(), any());
+        ArgumentCaptor<Map<String, ?>> ids = ArgumentCaptor.forClass(Map.class);
+        verify(namedJdbcTemplate).queryForList(startsWith("select id from comments"), ids.capture(), eq(Long.class));
+        assertThat((Collection<Long>) ids.getValue().get("ids")).containsExactly(101L, 102L);
+    }
+
+    @Test
+    void testCommentsOfDeletedNewsAreCountedAsDropped() {
+        when(namedJdbcTemplate.queryForList(startsWith("select id from comments"), anyMap(), eq(Long.class)))
+                .thenReturn(Collections.singletonList(201L));
+        when(namedJdbcTemplate.queryForList(startsWith("select id from news"), anyMap(), eq(Long.class)))
+                .thenReturn(Collections.emptyList());
+
+        CommentBatchWriter.BatchWritten written = batchWriter.write(Arrays.asList(pending(1, NEWS_TWO_ID, 201L),
+                pending(2, NEWS_TWO_ID, 202L), pending(3, NEWS_TWO_ID, 203L)));
+
+        assertThat(written.getInserted()).isZero();
+        assertThat(written.getNewsDeleted()).isEqualTo(2);
+        verify(namedJdbcTemplate, never()).getJdbcTemplate();
+        verify(cacheInvalidator, never()).commentChanged(any(), any());
+    }
+
+    private static PendingComment pending(long seq, Long newsId, Long id) {
+        return new PendingComment(seq, newsId, new CommentDto(id, DATE, "Comment text", "Ivan"), 0);
+    }
+}
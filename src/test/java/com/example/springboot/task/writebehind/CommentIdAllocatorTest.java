@@ -0,0 +1,45 @@
+package com.example.springboot.task.writebehind;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static com.example.springboot.task.util.UtilConstants.COMMENTS_ID_ALLOCATION_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommentIdAllocatorTest {
+
+    private static final String NEXT_VALUE_SQL = "select nextval('comments_id_seq')";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testIdsAreHandedOutBelowSequenceValue() {
+        when(jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class)).thenReturn(150L, 200L);
+        CommentIdAllocator allocator = new CommentIdAllocator(jdbcTemplate, NEXT_VALUE_SQL);
+
+        for (long id = 101; id <= 150; id++) {
+            assertThat(allocator.nextId()).isEqualTo(id);
+        }
+        verify(jdbcTemplate, times(1)).queryForObject(NEXT_VALUE_SQL, Long.class);
+
+        assertThat(allocator.nextId()).isEqualTo(151L);
+        verify(jdbcTemplate, times(2)).queryForObject(NEXT_VALUE_SQL, Long.class);
+    }
+
+    @Test
+    void testFirstValueOfNewSequenceIsSkipped() {
+        when(jdbcTemplate.queryForObject(NEXT_VALUE_SQL, Long.class)).thenReturn(1L, 1L + COMMENTS_ID_ALLOCATION_SIZE);
+        CommentIdAllocator allocator = new CommentIdAllocator(jdbcTemplate, NEXT_VALUE_SQL);
+
+        assertThat(allocator.nextId()).isEqualTo(2L);
+        verify(jdbcTemplate, times(2)).queryForObject(NEXT_VALUE_SQL, Long.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springboot.task.writebehind;
+
+import com.example.springboot.task.dto.CommentDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommentJournalTest {
+
+    private static final Long NEWS_ID = 1L;
+    private static final String USER_NAME = "Ivan";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOpenReturnsCommentsAfterCheckpoint() throws IOException {
+        CommentJournal journal = new CommentJournal(directory, objectMapper, true, Long.MAX_VALUE);
+        assertThat(journal.open()).isEmpty();
+        PendingComment first = journal.append(NEWS_ID, comment(101L));
+        journal.append(NEWS_ID, comment(102L));
+        journal.append(NEWS_ID, comment(103L));
+        journal.sync();
+        journal.checkpoint(first.getSeq());
+        journal.close();
+
+        CommentJournal reopened = new CommentJournal(directory, objectMapper, true, Long.MAX_VALUE);
+        List<PendingComment> pending = reopened.open();
+
+        assertThat(pending).extracting(record -> record.getComment().getId()).containsExactly(102L, 103L);
+        assertThat(reopened.append(NEWS_ID, comment(104L)).getSeq()).isEqualTo(4L);
+        reopened.close();
+    }
+
+    @Test
+    void testOpenCutsOffIncompleteRecord() throws IOException {
+        CommentJournal journal = new CommentJournal(directory, objectMapper, false, Long.MAX_VALUE);
+        journal.open();
+        journal.append(NEWS_ID, comment(101L));
+        journal.close();
+        Files.write(directory.resolve("comments.journal"), "{\"seq\":2,\"newsId\"".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        CommentJournal reopened = new CommentJournal(directory, objectMapper, false, Long.MAX_VALUE);
+        assertThat(reopened.open()).hasSize(1);
+        reopened.append(NEWS_ID, comment(102L));
+        reopened.close();
+
+        assertThat(new CommentJournal(directory, objectMapper, false, Long.MAX_VALUE).open())
+                .extracting(record -> record.getComment().getId()).containsExactly(101L, 102L);
+    }
+
+    @Test
+    void testCheckpointTruncatesWrittenJournal() throws IOException {
+        CommentJournal journal = new CommentJournal(directory, objectMapper, false, 1);
+        journal.open();
+        PendingComment record = journal.append(NEWS_ID, comment(101L));
+        journal.checkpoint(record.getSeq());
+        journal.close();
+
+        assertThat(Files.size(directory.resolve("comments.journal"))).isZero();
+        CommentJournal reopened = new CommentJournal(directory, objectMapper, false, 1);
+        assertThat(reopened.open()).isEmpty();
+        assertThat(reopened.append(NEWS_ID, comment(102L)).getSeq()).isEqualTo(2L);
+        reopened.close();
+    }
+
+    private static CommentDto comment(Long id) {
+        return new CommentDto(id, LocalDateTime.of(2021, 1, 1, 12, 0), "Comment text", USER_NAME);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.springboot.task.writebehind;
+
+import com.example.springboot.task.config.WriteBehindProperties;
+import com.example.springboot.task.dto.CommentDto;
+import com.example.springboot.task.exception.WriteBehindQueueFullException;
+import com.example.springboot.task.exception.WriteBehindUnavailableException;
+import com.example.springboot.task.repository.NewsRepository;
+import com.example.springboot.task.validator.CommentDtoValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CommentWriteBehindQueueTest {
+
+    private static final Long NEWS_ID = 1L;
+    private static final String USER_NAME = "Ivan";
+
+    @Mock
+    private CommentJournal journal;
+
+    @Mock
+    private CommentIdAllocator idAllocator;
+
+    @Mock
+    private CommentBatchWriter batchWriter;
+
+    @Mock
+    private CommentDtoValidator validator;
+
+    @Mock
+    private NewsRepository newsRepository;
+
+    private final WriteBehindProperties properties = new WriteBehindProperties();
+
+    private final AtomicLong seq = new AtomicLong();
+
+    private final AtomicLong ids = new AtomicLong(100);
+
+    /**
+     * copies of the batches, the writer reuses its batch list
+     */
+    private final List<PendingComment> written = Collections.synchronizedList(new ArrayList<>());
+
+    private CommentWriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties.setQueueCapacity(1);
+        properties.setBatchSize(10);
+        properties.setFlushInterval(Duration.ofMillis(5));
+        properties.setShutdownTimeout(Duration.ofSeconds(5));
+        when(newsRepository.existsById(NEWS_ID)).thenReturn(true);
+        when(idAllocator.nextId()).thenAnswer(invocation -> ids.incrementAndGet());
+        when(journal.open()).thenReturn(Collections.emptyList());
+        when(journal.append(any(), any())).thenAnswer(invocation -> new PendingComment(seq.incrementAndGet(),
+                invocation.getArgument(0), invocation.getArgument(1), System.currentTimeMillis()));
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<PendingComment> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            return new CommentBatchWriter.BatchWritten(batch.size(), 0);
+        });
+        queue = new CommentWriteBehindQueue(properties, journal, idAllocator, batchWriter, validator, newsRepository,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue.isRunning()) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void testCommentsAreWrittenInJournalOrder() throws InterruptedException, IOException {
+        properties.setQueueCapacity(1000);
+        queue.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.execute(() -> queue.accept(NEWS_ID, comment()));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        verify(journal, timeout(5000)).checkpoint(200L);
+        List<Long> seqs;
+        synchronized (written) {
+            seqs = written.stream().map(PendingComment::getSeq).collect(toList());
+        }
+        assertThat(seqs).hasSize(200).isSorted();
+    }
+
+    @Test
+    void testCapacityIsReleasedAfterRejectedComment() throws IOException, InterruptedException {
+        when(batchWriter.write(anyList())).thenThrow(new DataIntegrityViolationException("check constraint"));
+        queue.start();
+
+        queue.accept(NEWS_ID, comment());
+        verify(journal, timeout(5000)).checkpoint(1L);
+
+        assertThat(acceptOnceReleased().getId()).isEqualTo(102L);
+    }
+
+    @Test
+    void testQueueFullIsRejected() {
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            TimeUnit.SECONDS.sleep(1);
+            return new CommentBatchWriter.BatchWritten(1, 0);
+        });
+        queue.start();
+
+        queue.accept(NEWS_ID, comment());
+        assertThrows(WriteBehindQueueFullException.class, () -> queue.accept(NEWS_ID, comment()));
+    }
+
+    @Test
+    void testFailedAppendReleasesCapacityAndStopsAccepting() throws IOException {
+        when(journal.append(any(), any())).thenThrow(new IOException("no space left on device"));
+        queue.start();
+
+        assertThrows(UncheckedIOException.class, () -> queue.accept(NEWS_ID, comment()));
+
+        assertThat(queue.isJournalWritable()).isFalse();
+        assertThrows(WriteBehindUnavailableException.class, () -> queue.accept(NEWS_ID, comment()));
+    }
+
+    @Test
+    void testFailedSyncAcceptsCommentAndStopsAccepting() throws IOException {
+        properties.setQueueCapacity(10);
+        doThrow(new IOException("fsync failed")).when(journal).sync();
+        queue.start();
+
+        CommentDto accepted = queue.accept(NEWS_ID, comment());
+
+        assertThat(accepted.getId()).isEqualTo(101L);
+        verify(journal, timeout(5000)).checkpoint(1L);
+        assertThat(written).extracting(pending -> pending.getComment().getId()).containsExactly(101L);
+        assertThat(queue.isJournalWritable()).isFalse();
+        assertThrows(WriteBehindUnavailableException.class, () -> queue.accept(NEWS_ID, comment()));
+    }
+
+    @Test
+    void testJournalIsReplayedOnStart() throws IOException, InterruptedException {
+        properties.setQueueCapacity(2);
+        List<PendingComment> pending = Arrays.asList(
+                new PendingComment(7L, NEWS_ID, new CommentDto(11L, LocalDateTime.of(2021, 1, 1, 12, 0), "First", USER_NAME), 0),
+                new PendingComment(8L, NEWS_ID, new CommentDto(12L, LocalDateTime.of(2021, 1, 1, 12, 1), "Second", USER_NAME), 0));
+        when(journal.open()).thenReturn(pending);
+        seq.set(8L);
+
+        queue.start();
+
+        verify(journal, timeout(5000)).checkpoint(8L);
+        assertThat(written).extracting(PendingComment::getSeq).containsExactly(7L, 8L);
+        // the replayed comments held the whole capacity until they were written
+        assertThat(acceptOnceReleased().getId()).isEqualTo(101L);
+    }
+
+    /**
+     * The capacity of a batch is released just after its checkpoint
+     */
+    private CommentDto acceptOnceReleased() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                return queue.accept(NEWS_ID, comment());
+            } catch (WriteBehindQueueFullException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        }
+    }
+
+    private static CommentDto comment() {
+        return new CommentDto(null, LocalDateTime.of(2021, 1, 1, 12, 0), "Comment text", USER_NAME);
+    }
+}